@@ -1,76 +1,88 @@
 package com.mcbzh.teams;
 
+import com.mcbzh.teams.commands.AllyChatCommand;
+import com.mcbzh.teams.commands.TeamAdminCommand;
+import com.mcbzh.teams.commands.TeamChatCommand;
 import com.mcbzh.teams.commands.TeamCommand;
+import com.mcbzh.teams.config.PluginSettings;
+import com.mcbzh.teams.gui.MenuTracker;
 import com.mcbzh.teams.listeners.*;
+import com.mcbzh.teams.managers.DebugManager;
 import com.mcbzh.teams.managers.TeamManager;
 import com.mcbzh.teams.managers.NametagManager;
+import com.mcbzh.teams.managers.ProfileCache;
+import com.mcbzh.teams.managers.StatisticsManager;
 import com.mcbzh.teams.managers.TeamStashManager;
 import com.mcbzh.teams.managers.TeamChatManager;
-import org.bukkit.entity.Player;
+import com.mcbzh.teams.managers.WorldPolicyManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class TeamsPlugin extends JavaPlugin {
+    private volatile PluginSettings settings;
+    private DebugManager debugManager;
     private TeamManager teamManager;
+    private ProfileCache profileCache;
     private NametagManager nametagManager;
     private TeamStashManager stashManager;
     private TeamChatManager chatManager;
+    private StatisticsManager statisticsManager;
+    private WorldPolicyManager worldPolicyManager;
+    private MenuTracker menuTracker;
 
     @Override
     public void onEnable() {
         // Save default config
         saveDefaultConfig();
+        settings = PluginSettings.load(getConfig(), getLogger());
 
         // Initialize managers
+        debugManager = new DebugManager(this);
         teamManager = new TeamManager(this);
+        profileCache = new ProfileCache(this);
         nametagManager = new NametagManager(this);
         stashManager = new TeamStashManager(this);
         chatManager = new TeamChatManager(this);
+        statisticsManager = new StatisticsManager(this);
+        worldPolicyManager = new WorldPolicyManager(this);
+        menuTracker = new MenuTracker(this);
 
         // Register commands
         TeamCommand teamCommand = new TeamCommand(this);
         getCommand("team").setExecutor(teamCommand);
         getCommand("team").setTabCompleter(teamCommand);
 
+        // Register admin command
+        TeamAdminCommand adminCommand = new TeamAdminCommand(this);
+        getCommand("teamadmin").setExecutor(adminCommand);
+        getCommand("teamadmin").setTabCompleter(adminCommand);
+
         // Register /tc command
-        getCommand("tc").setExecutor((sender, cmd, label, args) -> {
-            if (!(sender instanceof Player)) {
-                sender.sendMessage("§cThis command can only be used by players!");
-                return true;
-            }
-
-            Player player = (Player) sender;
-
-            // If no args, toggle team chat
-            if (args.length == 0) {
-                chatManager.toggleTeamChat(player);
-                return true;
-            }
-
-            // Send as team message
-            String message = String.join(" ", args);
-            chatManager.sendTeamMessage(player, message);
-            return true;
-        });
+        TeamChatCommand teamChatCommand = new TeamChatCommand(this);
+        getCommand("tc").setExecutor(teamChatCommand);
+        getCommand("tc").setTabCompleter(teamChatCommand);
+
+        // Register /ac command
+        getCommand("ac").setExecutor(new AllyChatCommand(this));
 
         // Register listeners
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
-        getServer().getPluginManager().registerEvents(new GUIListener(this), this);
+        getServer().getPluginManager().registerEvents(new GUIListener(), this);
         getServer().getPluginManager().registerEvents(new TeamCombatListener(this), this);
         getServer().getPluginManager().registerEvents(new ChatListener(this), this);
         getServer().getPluginManager().registerEvents(new StashListener(this), this);
 
-        // Start auto-save task (every 5 minutes)
-        int autoSaveInterval = getConfig().getInt("performance.auto-save-interval", 5) * 60 * 20;
+        // Start auto-save task (every 5 minutes by default)
+        long autoSaveInterval = settings.performance.autoSaveIntervalTicks;
         getServer().getScheduler().runTaskTimer(this, () -> {
             teamManager.saveTeams();
             stashManager.saveStashes();
+            profileCache.save(true);
             getLogger().info("Auto-saved team data and stashes");
         }, autoSaveInterval, autoSaveInterval);
 
         // Update all online players' nametags after a short delay
         getServer().getScheduler().runTaskLater(this, () -> {
             nametagManager.refreshAllScoreboards();
-            getLogger().info("Refreshed all player nametags");
         }, 20L);
 
         getLogger().info("TeamsPlugin has been enabled!");
@@ -79,30 +91,79 @@ public class TeamsPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Stop the statistics flush timer (team data is saved just below)
+        if (statisticsManager != null) {
+            statisticsManager.shutdown();
+        }
+
+        // Stop refreshing open menus
+        if (menuTracker != null) {
+            menuTracker.shutdown();
+        }
+
         // Save all team data before shutdown
         if (teamManager != null) {
             teamManager.saveTeams();
             getLogger().info("Saved all team data");
         }
 
+        // Stop profile lookups and save the profile cache
+        if (profileCache != null) {
+            profileCache.shutdown();
+        }
+
         // Save all stashes
         if (stashManager != null) {
             stashManager.saveStashes();
             getLogger().info("Saved all team stashes");
         }
 
+        // Release chat history buffers and flush the chat log
+        if (chatManager != null) {
+            chatManager.shutdown();
+        }
+
         // Clean up scoreboards
         if (nametagManager != null) {
-            nametagManager.cleanupAllTeams();
+            nametagManager.shutdown();
         }
 
         getLogger().info("TeamsPlugin has been disabled!");
     }
 
+    /**
+     * Current settings snapshot. Hold on to the returned object only for the duration of one
+     * operation - it is replaced on /team reload.
+     */
+    public PluginSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Re-read config.yml and swap in a new settings snapshot.
+     * Settings that size buffers or schedule tasks take effect on the next restart.
+     */
+    public void reloadSettings() {
+        reloadConfig();
+        settings = PluginSettings.load(getConfig(), getLogger());
+
+        debugManager.reload();
+        chatManager.getRateLimiter().reload();
+        worldPolicyManager.rebuild();
+    }
+
+    public DebugManager getDebugManager() {
+        return debugManager;
+    }
+
     public TeamManager getTeamManager() {
         return teamManager;
     }
 
+    public ProfileCache getProfileCache() {
+        return profileCache;
+    }
+
     public NametagManager getNametagManager() {
         return nametagManager;
     }
@@ -114,4 +175,16 @@ public class TeamsPlugin extends JavaPlugin {
     public TeamChatManager getChatManager() {
         return chatManager;
     }
+
+    public StatisticsManager getStatisticsManager() {
+        return statisticsManager;
+    }
+
+    public WorldPolicyManager getWorldPolicyManager() {
+        return worldPolicyManager;
+    }
+
+    public MenuTracker getMenuTracker() {
+        return menuTracker;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.mcbzh.teams.commands;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.managers.TeamChatManager;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+public class AllyChatCommand implements CommandExecutor {
+    private final TeamChatManager chatManager;
+
+    public AllyChatCommand(TeamsPlugin plugin) {
+        this.chatManager = plugin.getChatManager();
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage(ChatColor.RED + "This command can only be used by players!");
+            return true;
+        }
+
+        Player player = (Player) sender;
+
+        // If no args, toggle ally chat
+        if (args.length == 0) {
+            chatManager.toggleAllyChat(player);
+            return true;
+        }
+
+        // Send as ally message
+        chatManager.sendAllyMessage(player, String.join(" ", args));
+        return true;
+    }
+}
@@ -0,0 +1,273 @@
+package com.mcbzh.teams.commands;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.managers.ChatRateLimiter;
+import com.mcbzh.teams.managers.CombatLogManager;
+import com.mcbzh.teams.managers.DebugManager;
+import com.mcbzh.teams.managers.KillFarmDetector;
+import com.mcbzh.teams.managers.LeaderboardManager;
+import com.mcbzh.teams.managers.StatisticsManager;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class TeamAdminCommand implements CommandExecutor, TabCompleter {
+    private final TeamsPlugin plugin;
+
+    public TeamAdminCommand(TeamsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("teams.admin")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to do that!");
+            return true;
+        }
+
+        if (args.length == 0) {
+            sendHelpMessage(sender);
+            return true;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "debug":
+                return handleDebug(sender, args);
+            case "chat":
+                return handleChat(sender, args);
+            case "stats":
+                return handleStats(sender);
+            case "season":
+                return handleSeason(sender, args);
+            case "combatlog":
+                return handleCombatLog(sender, args);
+            case "farming":
+                return handleFarming(sender);
+            case "help":
+            default:
+                sendHelpMessage(sender);
+                return true;
+        }
+    }
+
+    private boolean handleDebug(CommandSender sender, String[] args) {
+        DebugManager debug = plugin.getDebugManager();
+        String action = args.length > 1 ? args[1].toLowerCase() : "dump";
+
+        switch (action) {
+            case "dump":
+                int count = 20;
+                if (args.length > 2) {
+                    try {
+                        count = Math.max(1, Integer.parseInt(args[2]));
+                    } catch (NumberFormatException e) {
+                        sender.sendMessage(ChatColor.RED + "Invalid count: " + args[2]);
+                        return true;
+                    }
+                }
+                debug.dump(sender, count);
+                break;
+
+            case "clear":
+                debug.clear();
+                sender.sendMessage(ChatColor.GREEN + "Cleared debug events");
+                break;
+
+            case "on":
+                debug.setEnabled(true);
+                sender.sendMessage(ChatColor.GREEN + "Debug recording enabled");
+                break;
+
+            case "off":
+                debug.setEnabled(false);
+                sender.sendMessage(ChatColor.YELLOW + "Debug recording disabled");
+                break;
+
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /teamadmin debug [dump [count]|clear|on|off]");
+                break;
+        }
+
+        return true;
+    }
+
+    private boolean handleChat(CommandSender sender, String[] args) {
+        ChatRateLimiter limiter = plugin.getChatManager().getRateLimiter();
+        String action = args.length > 1 ? args[1].toLowerCase() : "stats";
+
+        switch (action) {
+            case "stats":
+                sender.sendMessage(ChatColor.GOLD + "Chat rate limiting: " +
+                        (limiter.isEnabled() ? ChatColor.GREEN + "enabled" : ChatColor.RED + "disabled"));
+                for (ChatRateLimiter.Channel channel : ChatRateLimiter.Channel.values()) {
+                    sender.sendMessage(ChatColor.YELLOW + channel.name() + ChatColor.GRAY + " dropped - player limit: " +
+                            ChatColor.WHITE + limiter.getDroppedByPlayerLimit(channel) +
+                            ChatColor.GRAY + ", team limit: " + ChatColor.WHITE + limiter.getDroppedByTeamLimit(channel));
+                }
+                break;
+
+            case "reset":
+                limiter.resetCounters();
+                sender.sendMessage(ChatColor.GREEN + "Reset chat rate limit counters");
+                break;
+
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /teamadmin chat [stats|reset]");
+                break;
+        }
+
+        return true;
+    }
+
+    private boolean handleStats(CommandSender sender) {
+        StatisticsManager statistics = plugin.getStatisticsManager();
+
+        sender.sendMessage(ChatColor.GOLD + "Statistics: " +
+                (statistics.isEnabled() ? ChatColor.GREEN + "enabled" : ChatColor.RED + "disabled"));
+        sender.sendMessage(ChatColor.YELLOW + "Kills/sec" + ChatColor.GRAY + " (10s / 60s): " + ChatColor.WHITE +
+                String.format("%.2f / %.2f", statistics.getKillsPerSecond(10), statistics.getKillsPerSecond(60)));
+        sender.sendMessage(ChatColor.YELLOW + "Unsaved changes: " + ChatColor.WHITE + statistics.getPendingEvents() +
+                ChatColor.GRAY + " (batched saves so far: " + statistics.getTotalFlushes() + ")");
+        return true;
+    }
+
+    private boolean handleSeason(CommandSender sender, String[] args) {
+        LeaderboardManager leaderboards = plugin.getStatisticsManager().getLeaderboards();
+
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            leaderboards.resetSeason();
+            sender.sendMessage(ChatColor.GREEN + "Started a new leaderboard season");
+            return true;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Current season started: " + ChatColor.WHITE +
+                new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(leaderboards.getSeasonStart())));
+        sender.sendMessage(ChatColor.GRAY + "Use /teamadmin season reset to start a new season");
+        return true;
+    }
+
+    private boolean handleCombatLog(CommandSender sender, String[] args) {
+        CombatLogManager combatLog = plugin.getStatisticsManager().getCombatLog();
+        String action = args.length > 1 ? args[1].toLowerCase() : "summary";
+
+        switch (action) {
+            case "summary":
+                int days = 7;
+                if (args.length > 2) {
+                    try {
+                        days = Math.max(1, Integer.parseInt(args[2]));
+                    } catch (NumberFormatException e) {
+                        sender.sendMessage(ChatColor.RED + "Invalid number of days: " + args[2]);
+                        return true;
+                    }
+                }
+                sender.sendMessage(ChatColor.GRAY + "Reading combat log...");
+                combatLog.sendDailySummary(sender, days);
+                break;
+
+            case "rebuild":
+                if (args.length < 3 || !args[2].equalsIgnoreCase("confirm")) {
+                    sender.sendMessage(ChatColor.YELLOW + "This replaces the kills and deaths of teams in the combat log with the logged totals.");
+                    sender.sendMessage(ChatColor.YELLOW + "Teams created before the first logged event are skipped, but events from while " +
+                            "the log was disabled are lost for the others.");
+                    sender.sendMessage(ChatColor.YELLOW + "Run " + ChatColor.WHITE + "/teamadmin combatlog rebuild confirm" +
+                            ChatColor.YELLOW + " to continue.");
+                    return true;
+                }
+                sender.sendMessage(ChatColor.GRAY + "Rebuilding team statistics from the combat log...");
+                combatLog.rebuildTeamStats(sender);
+                break;
+
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /teamadmin combatlog [summary [days]|rebuild confirm]");
+                break;
+        }
+
+        return true;
+    }
+
+    private boolean handleFarming(CommandSender sender) {
+        KillFarmDetector detector = plugin.getStatisticsManager().getFarmDetector();
+
+        if (!detector.isEnabled()) {
+            sender.sendMessage(ChatColor.RED + "Anti-farming is disabled (statistics.anti-farming.enabled)");
+            return true;
+        }
+
+        long windowMinutes = detector.getWindowMillis() / 60_000L;
+        sender.sendMessage(ChatColor.GOLD + "Kill farming" + ChatColor.GRAY + " (more than " + detector.getMaxKills() +
+                " kills of the same player in " + windowMinutes + " min)");
+        sender.sendMessage(ChatColor.YELLOW + "Discounted kills since startup: " + ChatColor.WHITE + detector.getTotalDiscounted());
+
+        List<KillFarmDetector.FlaggedPair> pairs = detector.getFlaggedPairs(10);
+        if (pairs.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No pairs flagged in the last " + windowMinutes + " minutes");
+            return true;
+        }
+
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss");
+        for (KillFarmDetector.FlaggedPair pair : pairs) {
+            sender.sendMessage(ChatColor.WHITE + getName(pair.getKiller()) + ChatColor.GRAY + " -> " +
+                    ChatColor.WHITE + getName(pair.getVictim()) + ChatColor.GRAY + ": " +
+                    ChatColor.RED + pair.getDiscountedKills() + " discounted" +
+                    ChatColor.GRAY + " (last " + time.format(new Date(pair.getLastKill())) + ")");
+        }
+        return true;
+    }
+
+    private String getName(UUID playerId) {
+        String name = plugin.getProfileCache().getName(playerId);
+        return name != null ? name : playerId.toString().substring(0, 8);
+    }
+
+    private void sendHelpMessage(CommandSender sender) {
+        sender.sendMessage(ChatColor.GOLD + "╔═══════════════════════════════╗");
+        sender.sendMessage(ChatColor.YELLOW + "       Team Admin Commands");
+        sender.sendMessage(ChatColor.GOLD + "╠═══════════════════════════════╣");
+        sender.sendMessage(ChatColor.AQUA + "/teamadmin debug [dump [n]|clear|on|off]" +
+                ChatColor.GRAY + " - Debug events");
+        sender.sendMessage(ChatColor.AQUA + "/teamadmin chat [stats|reset]" +
+                ChatColor.GRAY + " - Chat rate limit counters");
+        sender.sendMessage(ChatColor.AQUA + "/teamadmin stats" +
+                ChatColor.GRAY + " - Statistics throughput");
+        sender.sendMessage(ChatColor.AQUA + "/teamadmin season [reset]" +
+                ChatColor.GRAY + " - Leaderboard season");
+        sender.sendMessage(ChatColor.AQUA + "/teamadmin combatlog [summary [days]|rebuild]" +
+                ChatColor.GRAY + " - Combat event log");
+        sender.sendMessage(ChatColor.AQUA + "/teamadmin farming" +
+                ChatColor.GRAY + " - Suspected kill farming");
+        sender.sendMessage(ChatColor.GOLD + "╚═══════════════════════════════╝");
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            completions.addAll(Arrays.asList("debug", "chat", "stats", "season", "combatlog", "farming", "help"));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("debug")) {
+            completions.addAll(Arrays.asList("dump", "clear", "on", "off"));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("chat")) {
+            completions.addAll(Arrays.asList("stats", "reset"));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("season")) {
+            completions.add("reset");
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("combatlog")) {
+            completions.addAll(Arrays.asList("summary", "rebuild"));
+        }
+
+        String current = args.length > 0 ? args[args.length - 1].toLowerCase() : "";
+        return completions.stream()
+                .filter(s -> s.startsWith(current))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,70 @@
+package com.mcbzh.teams.commands;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.managers.TeamChatManager;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TeamChatCommand implements CommandExecutor, TabCompleter {
+    private final TeamChatManager chatManager;
+
+    public TeamChatCommand(TeamsPlugin plugin) {
+        this.chatManager = plugin.getChatManager();
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage(ChatColor.RED + "This command can only be used by players!");
+            return true;
+        }
+
+        Player player = (Player) sender;
+
+        // If no args, toggle team chat
+        if (args.length == 0) {
+            chatManager.toggleTeamChat(player);
+            return true;
+        }
+
+        // /tc history [page] - anything longer is sent as a normal message
+        if (args[0].equalsIgnoreCase("history") && args.length <= 2) {
+            int page = 1;
+            if (args.length == 2) {
+                try {
+                    page = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    // A mistyped page should not end up in team chat
+                    player.sendMessage(ChatColor.RED + "Usage: /tc history [page]");
+                    return true;
+                }
+            }
+
+            chatManager.sendHistory(player, page);
+            return true;
+        }
+
+        // Send as team message
+        String message = String.join(" ", args);
+        chatManager.sendTeamMessage(player, message);
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1 && "history".startsWith(args[0].toLowerCase())) {
+            completions.add("history");
+        }
+
+        return completions;
+    }
+}
@@ -1,12 +1,16 @@
 package com.mcbzh.teams.commands;
 
 import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.config.PluginSettings;
 import com.mcbzh.teams.gui.TeamListGUI;
 import com.mcbzh.teams.gui.TeamManageGUI;
+import com.mcbzh.teams.managers.LeaderboardManager;
+import com.mcbzh.teams.managers.PlayerStatsManager;
 import com.mcbzh.teams.managers.TeamManager;
 import com.mcbzh.teams.models.Team;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -36,6 +40,11 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // Reload is the only subcommand the console may run
+        if (args.length > 0 && args[0].equalsIgnoreCase("reload")) {
+            return handleReload(sender);
+        }
+
         if (!(sender instanceof Player)) {
             sender.sendMessage(ChatColor.RED + "This command can only be used by players!");
             return true;
@@ -66,7 +75,11 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             case "demote":
                 return handleDemote(player, args);
             case "list":
-                teamListGUI.openTeamList(player, 1);
+                if (args.length > 1) {
+                    teamListGUI.searchTeams(player, String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+                } else {
+                    teamListGUI.openTeamList(player, 1);
+                }
                 return true;
             case "info":
                 return handleInfo(player, args);
@@ -78,6 +91,8 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
                 return handleChat(player);
             case "stash":
                 return handleStash(player);
+            case "stats":
+                return handleStats(player, args);
             case "top":
                 return handleTop(player, args);
             case "color":
@@ -117,14 +132,16 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         Team existingTeam = teamManager.getPlayerTeam(player.getUniqueId());
         if (existingTeam != null) {
-            player.sendMessage(ChatColor.RED + "You are already in a team! Leave it first.");
+            player.sendMessage(plugin.getSettings().messages.get("already-in-team"));
             return true;
         }
 
         String teamName = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+        PluginSettings.TeamSettings teamSettings = plugin.getSettings().teams;
 
-        if (teamName.length() > 16) {
-            player.sendMessage(ChatColor.RED + "Team name must be 16 characters or less!");
+        if (teamName.length() < teamSettings.minNameLength || teamName.length() > teamSettings.maxNameLength) {
+            player.sendMessage(ChatColor.RED + "Team name must be between " + teamSettings.minNameLength +
+                    " and " + teamSettings.maxNameLength + " characters!");
             return true;
         }
 
@@ -140,7 +157,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             plugin.getNametagManager().updatePlayer(player);
         }
 
-        player.sendMessage(ChatColor.GREEN + "Successfully created team: " + team.getColoredName());
+        player.sendMessage(plugin.getSettings().messages.get("team-created", "team", team.getColoredName()));
         player.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team manage" +
                 ChatColor.YELLOW + " to configure your team!");
 
@@ -154,7 +171,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -222,7 +239,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -251,10 +268,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         }
 
         // Form alliance (mutual)
-        team.addAlly(targetTeam.getId());
-        targetTeam.addAlly(team.getId());
-
-        teamManager.saveTeams();
+        teamManager.formAlliance(team, targetTeam);
 
         // Notify both teams
         teamManager.broadcastToTeam(team,
@@ -269,7 +283,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -297,10 +311,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         }
 
         // Remove alliance (mutual)
-        team.removeAlly(targetTeam.getId());
-        targetTeam.removeAlly(team.getId());
-
-        teamManager.saveTeams();
+        teamManager.breakAlliance(team, targetTeam);
 
         // Notify both teams
         teamManager.broadcastToTeam(team,
@@ -315,7 +326,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -347,7 +358,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -366,12 +377,12 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
         if (!team.isLeader(player.getUniqueId())) {
-            player.sendMessage(ChatColor.RED + "Only the team leader can disband the team!");
+            player.sendMessage(plugin.getSettings().messages.get("no-permission-leader"));
             return true;
         }
 
@@ -382,12 +393,13 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         // Notify all members
         teamManager.broadcastToTeam(team,
-                ChatColor.RED + "Your team has been disbanded by the leader!");
+                plugin.getSettings().messages.get("team-disbanded", "team", teamName));
 
         teamManager.deleteTeam(team.getId());
 
         // Update nametags for all former members
         if (plugin.getNametagManager() != null) {
+            plugin.getNametagManager().removeTeamScoreboard(team);
             for (UUID memberId : members) {
                 Player member = Bukkit.getPlayer(memberId);
                 if (member != null && member.isOnline()) {
@@ -410,12 +422,12 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
         if (!team.isModerator(player.getUniqueId())) {
-            player.sendMessage(ChatColor.RED + "Only team moderators can invite players!");
+            player.sendMessage(plugin.getSettings().messages.get("no-permission-moderator"));
             return true;
         }
 
@@ -438,12 +450,13 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         team.addInvitation(target.getUniqueId());
 
-        player.sendMessage(ChatColor.GREEN + "Invited " + target.getName() + " to your team!");
+        player.sendMessage(plugin.getSettings().messages.get("invited", "player", target.getName()));
         target.sendMessage(ChatColor.GOLD + "╔═══════════════════════════════╗");
-        target.sendMessage(ChatColor.YELLOW + "You've been invited to join " + team.getColoredName());
+        target.sendMessage(plugin.getSettings().messages.get("invitation-received", "team", team.getColoredName()));
         target.sendMessage(ChatColor.GRAY + "Use " + ChatColor.WHITE + "/team join " + team.getName() +
                 ChatColor.GRAY + " to accept");
-        target.sendMessage(ChatColor.GRAY + "Invitation expires in 5 minutes");
+        target.sendMessage(ChatColor.GRAY + "Invitation expires in " +
+                (plugin.getSettings().teams.invitationExpiryMillis / 60000L) + " minutes");
         target.sendMessage(ChatColor.GOLD + "╚═══════════════════════════════╝");
 
         return true;
@@ -456,7 +469,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         }
 
         if (teamManager.getPlayerTeam(player.getUniqueId()) != null) {
-            player.sendMessage(ChatColor.RED + "You are already in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("already-in-team"));
             return true;
         }
 
@@ -468,13 +481,13 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        if (!team.hasInvitation(player.getUniqueId())) {
+        if (!team.hasInvitation(player.getUniqueId(), plugin.getSettings().teams.invitationExpiryMillis)) {
             player.sendMessage(ChatColor.RED + "You don't have an invitation to this team!");
             return true;
         }
 
         if (team.isFull()) {
-            player.sendMessage(ChatColor.RED + "That team is full!");
+            player.sendMessage(plugin.getSettings().messages.get("team-full"));
             return true;
         }
 
@@ -487,7 +500,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         player.sendMessage(ChatColor.GREEN + "Successfully joined " + team.getColoredName() + "!");
         teamManager.broadcastToTeam(team,
-                ChatColor.YELLOW + player.getName() + " has joined the team!");
+                plugin.getSettings().messages.get("player-joined", "player", player.getName()));
 
         return true;
     }
@@ -496,7 +509,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -515,7 +528,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         player.sendMessage(ChatColor.GREEN + "You left " + teamName);
         teamManager.broadcastToTeam(team,
-                ChatColor.YELLOW + player.getName() + " has left the team!");
+                plugin.getSettings().messages.get("player-left", "player", player.getName()));
 
         return true;
     }
@@ -529,43 +542,28 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
         if (!team.isModerator(player.getUniqueId())) {
-            player.sendMessage(ChatColor.RED + "Only team moderators can kick players!");
+            player.sendMessage(plugin.getSettings().messages.get("no-permission-moderator"));
             return true;
         }
 
-        Player target = Bukkit.getPlayer(args[1]);
-
-        if (target == null) {
-            player.sendMessage(ChatColor.RED + "Player not found!");
-            return true;
-        }
+        UUID targetId = teamManager.findMemberByName(team, args[1]);
 
-        if (!team.isMember(target.getUniqueId())) {
+        if (targetId == null) {
             player.sendMessage(ChatColor.RED + "That player is not in your team!");
             return true;
         }
 
-        if (team.isLeader(target.getUniqueId())) {
+        if (team.isLeader(targetId)) {
             player.sendMessage(ChatColor.RED + "You cannot kick the team leader!");
             return true;
         }
 
-        teamManager.removePlayerFromTeam(target.getUniqueId(), team);
-
-        // Update nametag for kicked player
-        if (plugin.getNametagManager() != null) {
-            plugin.getNametagManager().updatePlayer(target);
-        }
-
-        player.sendMessage(ChatColor.GREEN + "Kicked " + target.getName() + " from the team!");
-        target.sendMessage(ChatColor.RED + "You were kicked from " + team.getColoredName());
-        teamManager.broadcastToTeam(team,
-                ChatColor.YELLOW + target.getName() + " was kicked from the team!");
+        teamManager.kickMember(player, team, targetId);
 
         return true;
     }
@@ -579,7 +577,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -588,26 +586,14 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        Player target = Bukkit.getPlayer(args[1]);
+        UUID targetId = teamManager.findMemberByName(team, args[1]);
 
-        if (target == null) {
-            player.sendMessage(ChatColor.RED + "Player not found!");
-            return true;
-        }
-
-        if (!team.isMember(target.getUniqueId())) {
+        if (targetId == null) {
             player.sendMessage(ChatColor.RED + "That player is not in your team!");
             return true;
         }
 
-        if (team.addModerator(target.getUniqueId())) {
-            player.sendMessage(ChatColor.GREEN + "Promoted " + target.getName() + " to moderator!");
-            target.sendMessage(ChatColor.GREEN + "You were promoted to moderator in " + team.getColoredName() + "!");
-            teamManager.broadcastToTeam(team,
-                    ChatColor.YELLOW + target.getName() + " was promoted to moderator!");
-        } else {
-            player.sendMessage(ChatColor.RED + "Failed to promote player!");
-        }
+        teamManager.promoteMember(player, team, targetId);
 
         return true;
     }
@@ -621,7 +607,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -630,19 +616,14 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        Player target = Bukkit.getPlayer(args[1]);
+        UUID targetId = teamManager.findMemberByName(team, args[1]);
 
-        if (target == null) {
-            player.sendMessage(ChatColor.RED + "Player not found!");
+        if (targetId == null) {
+            player.sendMessage(ChatColor.RED + "That player is not in your team!");
             return true;
         }
 
-        if (team.removeModerator(target.getUniqueId())) {
-            player.sendMessage(ChatColor.GREEN + "Demoted " + target.getName() + " from moderator!");
-            target.sendMessage(ChatColor.YELLOW + "You were demoted in " + team.getColoredName());
-        } else {
-            player.sendMessage(ChatColor.RED + "That player is not a moderator!");
-        }
+        teamManager.demoteMember(player, team, targetId);
 
         return true;
     }
@@ -671,7 +652,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -683,7 +664,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -691,20 +672,102 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleStats(Player player, String[] args) {
+        PlayerStatsManager playerStats = plugin.getStatisticsManager().getPlayerStats();
+        UUID targetId;
+        String targetName;
+
+        if (args.length > 1) {
+            Player online = Bukkit.getPlayer(args[1]);
+            OfflinePlayer target = online != null ? online : Bukkit.getOfflinePlayerIfCached(args[1]);
+            // The server's user cache expires entries; the profile cache keeps every player seen
+            targetId = target != null ? target.getUniqueId() : plugin.getProfileCache().findByName(args[1]);
+            if (targetId == null || !playerStats.hasStats(targetId)) {
+                player.sendMessage(ChatColor.RED + "No statistics found for " + args[1] + "!");
+                return true;
+            }
+            String cachedName = plugin.getProfileCache().getName(targetId);
+            targetName = cachedName != null ? cachedName : args[1];
+        } else {
+            targetId = player.getUniqueId();
+            targetName = player.getName();
+        }
+
+        Team team = teamManager.getPlayerTeam(targetId);
+
+        player.sendMessage(ChatColor.GOLD + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        player.sendMessage(ChatColor.YELLOW + "Statistics: " + ChatColor.WHITE + targetName +
+                (team != null ? " " + team.getColoredTag() : ""));
+        player.sendMessage(ChatColor.WHITE + "  Kills: " + ChatColor.GREEN +
+                playerStats.getStat(targetId, PlayerStatsManager.Stat.KILLS));
+        player.sendMessage(ChatColor.WHITE + "  Deaths: " + ChatColor.RED +
+                playerStats.getStat(targetId, PlayerStatsManager.Stat.DEATHS));
+        player.sendMessage(ChatColor.WHITE + "  Assists: " + ChatColor.YELLOW +
+                playerStats.getStat(targetId, PlayerStatsManager.Stat.ASSISTS));
+        player.sendMessage(ChatColor.WHITE + "  Damage Dealt: " + ChatColor.GOLD +
+                playerStats.format(PlayerStatsManager.Stat.DAMAGE, playerStats.getStat(targetId, PlayerStatsManager.Stat.DAMAGE)));
+        player.sendMessage(ChatColor.WHITE + "  K/D Ratio: " + ChatColor.AQUA +
+                String.format("%.2f", playerStats.getKDRatio(targetId)));
+        player.sendMessage(ChatColor.GOLD + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+
+        return true;
+    }
+
+    private boolean handleTopPlayers(Player player, String[] args) {
+        PlayerStatsManager playerStats = plugin.getStatisticsManager().getPlayerStats();
+        PlayerStatsManager.Stat stat = args.length > 2 ? PlayerStatsManager.Stat.fromName(args[2]) : PlayerStatsManager.Stat.KILLS;
+
+        if (stat == null) {
+            player.sendMessage(ChatColor.RED + "Usage: /team top players [kills|deaths|assists|damage]");
+            return true;
+        }
+
+        player.sendMessage(ChatColor.GOLD + "╔═══════════════════════════════╗");
+        player.sendMessage(ChatColor.YELLOW + "      Top Players by " + stat.getDisplayName());
+        player.sendMessage(ChatColor.GOLD + "╠═══════════════════════════════╣");
+
+        int rank = 1;
+        for (UUID playerId : playerStats.getLeaderboard(stat, plugin.getSettings().statistics.leaderboardSize)) {
+            String name = plugin.getProfileCache().getDisplayName(playerId);
+            player.sendMessage(ChatColor.WHITE + "#" + rank + " " + name +
+                    ChatColor.GRAY + " - " + ChatColor.GOLD + playerStats.format(stat, playerStats.getStat(playerId, stat)));
+            rank++;
+        }
+
+        player.sendMessage(ChatColor.GOLD + "╚═══════════════════════════════╝");
+
+        return true;
+    }
+
     private boolean handleTop(Player player, String[] args) {
         String type = args.length > 1 ? args[1].toLowerCase() : "kills";
 
+        if (type.equals("players")) {
+            return handleTopPlayers(player, args);
+        }
+
+        LeaderboardManager.Period period = args.length > 2 ? LeaderboardManager.Period.fromName(args[2]) : LeaderboardManager.Period.ALL;
+        if (period == null) {
+            player.sendMessage(ChatColor.RED + "Usage: /team top [kills|kd] [day|week|season|all]");
+            return true;
+        }
+
+        LeaderboardManager leaderboards = plugin.getStatisticsManager().getLeaderboards();
         List<Team> topTeams;
         String title;
 
         if (type.equals("kd")) {
-            topTeams = teamManager.getTopTeamsByKD(10);
+            topTeams = period == LeaderboardManager.Period.ALL ? teamManager.getTopTeamsByKD(10) : leaderboards.getTopTeamsByKD(period, 10);
             title = "Top Teams by K/D Ratio";
         } else {
-            topTeams = teamManager.getTopTeamsByKills(10);
+            topTeams = period == LeaderboardManager.Period.ALL ? teamManager.getTopTeamsByKills(10) : leaderboards.getTopTeamsByKills(period, 10);
             title = "Top Teams by Kills";
         }
 
+        if (period != LeaderboardManager.Period.ALL) {
+            title += " (" + period.getDisplayName() + ")";
+        }
+
         player.sendMessage(ChatColor.GOLD + "╔═══════════════════════════════╗");
         player.sendMessage(ChatColor.YELLOW + "      " + title);
         player.sendMessage(ChatColor.GOLD + "╠═══════════════════════════════╣");
@@ -712,8 +775,8 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         int rank = 1;
         for (Team team : topTeams) {
             String statValue = type.equals("kd") ?
-                    String.format("%.2f", team.getKDRatio()) :
-                    String.valueOf(team.getTotalKills());
+                    String.format("%.2f", leaderboards.getKDRatio(team, period)) :
+                    String.valueOf(leaderboards.getKills(team, period));
 
             player.sendMessage(ChatColor.WHITE + "#" + rank + " " + team.getColoredName() +
                     ChatColor.GRAY + " - " + ChatColor.GOLD + statValue);
@@ -729,7 +792,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -769,7 +832,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -785,8 +848,10 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         String tag = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
 
-        if (tag.length() > 16) {
-            player.sendMessage(ChatColor.RED + "Tag must be 16 characters or less!");
+        PluginSettings.TeamSettings teamSettings = plugin.getSettings().teams;
+        if (tag.length() < teamSettings.minTagLength || tag.length() > teamSettings.maxTagLength) {
+            player.sendMessage(ChatColor.RED + "Tag must be between " + teamSettings.minTagLength +
+                    " and " + teamSettings.maxTagLength + " characters!");
             return true;
         }
 
@@ -807,7 +872,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -845,7 +910,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
 
         if (team == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            player.sendMessage(plugin.getSettings().messages.get("not-in-team"));
             return true;
         }
 
@@ -877,12 +942,24 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleReload(CommandSender sender) {
+        if (!sender.hasPermission("teams.admin")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to reload the configuration!");
+            return true;
+        }
+
+        plugin.reloadSettings();
+        sender.sendMessage(ChatColor.GREEN + "TeamsPlugin configuration reloaded.");
+        sender.sendMessage(ChatColor.GRAY + "Buffer sizes and task intervals apply after a restart.");
+        return true;
+    }
+
     private void sendHelpMessage(Player player) {
         player.sendMessage(ChatColor.GOLD + "╔═══════════════════════════════╗");
         player.sendMessage(ChatColor.YELLOW + "         Team Commands");
         player.sendMessage(ChatColor.GOLD + "╠═══════════════════════════════╣");
         player.sendMessage(ChatColor.AQUA + "/team create <name>" + ChatColor.GRAY + " - Create a team");
-        player.sendMessage(ChatColor.AQUA + "/team list" + ChatColor.GRAY + " - View all teams");
+        player.sendMessage(ChatColor.AQUA + "/team list [name]" + ChatColor.GRAY + " - Browse or search teams");
         player.sendMessage(ChatColor.AQUA + "/team info [team]" + ChatColor.GRAY + " - Team info");
         player.sendMessage(ChatColor.AQUA + "/team manage" + ChatColor.GRAY + " - Manage team (GUI)");
         player.sendMessage(ChatColor.AQUA + "/team chat" + ChatColor.GRAY + " - Toggle team chat");
@@ -890,13 +967,18 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatColor.AQUA + "/team invite <player>" + ChatColor.GRAY + " - Invite player");
         player.sendMessage(ChatColor.AQUA + "/team join <team>" + ChatColor.GRAY + " - Join team");
         player.sendMessage(ChatColor.AQUA + "/team leave" + ChatColor.GRAY + " - Leave team");
-        player.sendMessage(ChatColor.AQUA + "/team top [kills|kd]" + ChatColor.GRAY + " - Top teams");
+        player.sendMessage(ChatColor.AQUA + "/team top [kills|kd|players] [day|week|season]" + ChatColor.GRAY + " - Leaderboards");
+        player.sendMessage(ChatColor.AQUA + "/team stats [player]" + ChatColor.GRAY + " - Player statistics");
         player.sendMessage(ChatColor.GOLD + "╠═══════════════════════════════╣");
         player.sendMessage(ChatColor.LIGHT_PURPLE + "/team ally <team>" + ChatColor.GRAY + " - Request alliance");
         player.sendMessage(ChatColor.LIGHT_PURPLE + "/team allyaccept <team>" + ChatColor.GRAY + " - Accept alliance");
         player.sendMessage(ChatColor.LIGHT_PURPLE + "/team allyremove <team>" + ChatColor.GRAY + " - Remove ally");
         player.sendMessage(ChatColor.LIGHT_PURPLE + "/team allylist" + ChatColor.GRAY + " - List allies");
         player.sendMessage(ChatColor.LIGHT_PURPLE + "/team allypermissions" + ChatColor.GRAY + " - Manage ally perms");
+        if (player.hasPermission("teams.admin")) {
+            player.sendMessage(ChatColor.GOLD + "╠═══════════════════════════════╣");
+            player.sendMessage(ChatColor.RED + "/team reload" + ChatColor.GRAY + " - Reload configuration");
+        }
         player.sendMessage(ChatColor.GOLD + "╚═══════════════════════════════╝");
     }
 
@@ -906,15 +988,25 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
 
         if (args.length == 1) {
             completions.addAll(Arrays.asList("create", "list", "info", "manage", "invite",
-                    "join", "leave", "kick", "promote", "demote", "top", "disband", "color",
+                    "join", "leave", "kick", "promote", "demote", "top", "stats", "disband", "color",
                     "tag", "description", "transfer", "chat", "stash", "help",
                     "ally", "allyaccept", "allyremove", "allylist", "allypermissions"));
+            if (sender.hasPermission("teams.admin")) {
+                completions.add("reload");
+            }
 
             return completions.stream()
                     .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
         }
 
+        if (args.length == 3 && args[0].equalsIgnoreCase("top")) {
+            if (args[1].equalsIgnoreCase("players")) {
+                return Arrays.asList("kills", "deaths", "assists", "damage");
+            }
+            return Arrays.asList("day", "week", "season", "all");
+        }
+
         if (args.length == 2) {
 
             if (args[0].equalsIgnoreCase("ally") || args[0].equalsIgnoreCase("allyaccept") ||
@@ -926,7 +1018,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             }
 
             if (args[0].equalsIgnoreCase("top")) {
-                return Arrays.asList("kills", "kd");
+                return Arrays.asList("kills", "kd", "players");
             }
 
             if (args[0].equalsIgnoreCase("color")) {
@@ -941,6 +1033,7 @@ public class TeamCommand implements CommandExecutor, TabCompleter {
             }
 
             if (args[0].equalsIgnoreCase("invite") || args[0].equalsIgnoreCase("kick") ||
+                    args[0].equalsIgnoreCase("stats") ||
                     args[0].equalsIgnoreCase("promote") || args[0].equalsIgnoreCase("demote") ||
                     args[0].equalsIgnoreCase("transfer")) {
                 return Bukkit.getOnlinePlayers().stream()
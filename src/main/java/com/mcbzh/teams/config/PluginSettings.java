@@ -0,0 +1,374 @@
+package com.mcbzh.teams.config;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, typed view of config.yml.
+ *
+ * Built once on enable and replaced as a whole on /team reload, so code on hot paths (damage,
+ * death and chat events) reads plain final fields instead of doing path lookups in the
+ * Bukkit configuration. Values are validated and clamped here, once.
+ */
+public final class PluginSettings {
+    public final TeamSettings teams;
+    public final NametagSettings nametags;
+    public final FriendlyFireSettings friendlyFire;
+    public final StatisticsSettings statistics;
+    public final ChatSettings chat;
+    public final CombatLogSettings combatLog;
+    public final Messages messages;
+    public final GuiSettings gui;
+    public final PerformanceSettings performance;
+    public final DebugSettings debug;
+
+    private PluginSettings(FileConfiguration config, Logger logger) {
+        this.teams = new TeamSettings(config);
+        this.nametags = new NametagSettings(config, logger);
+        this.friendlyFire = new FriendlyFireSettings(config, logger);
+        this.statistics = new StatisticsSettings(config);
+        this.chat = new ChatSettings(config);
+        this.combatLog = new CombatLogSettings(config);
+        this.messages = new Messages(config);
+        this.gui = new GuiSettings(config);
+        this.performance = new PerformanceSettings(config);
+        this.debug = new DebugSettings(config);
+    }
+
+    public static PluginSettings load(FileConfiguration config, Logger logger) {
+        return new PluginSettings(config, logger);
+    }
+
+    private static long seconds(int seconds) {
+        return seconds * 1000L;
+    }
+
+    private static long minutes(int minutes) {
+        return minutes * 60_000L;
+    }
+
+    public static final class TeamSettings {
+        public final int defaultMaxMembers;
+        public final int minNameLength;
+        public final int maxNameLength;
+        public final int minTagLength;
+        public final int maxTagLength;
+        public final boolean coloredNames;
+        public final long invitationExpiryMillis;
+
+        private TeamSettings(FileConfiguration config) {
+            this.defaultMaxMembers = Math.max(1, config.getInt("team-settings.default-max-members", 10));
+            this.minNameLength = Math.max(1, config.getInt("team-settings.min-team-name-length", 3));
+            this.maxNameLength = Math.max(minNameLength, config.getInt("team-settings.max-team-name-length", 16));
+            this.minTagLength = Math.max(1, config.getInt("team-settings.min-team-tag-length", 2));
+            this.maxTagLength = Math.max(minTagLength, config.getInt("team-settings.max-team-tag-length", 6));
+            this.coloredNames = config.getBoolean("team-settings.colored-names", true);
+            this.invitationExpiryMillis = minutes(Math.max(1, config.getInt("team-settings.invitation-expiry-minutes", 5)));
+        }
+    }
+
+    public static final class NametagSettings {
+        public final boolean enabled;
+        public final boolean showInTablist;
+        public final boolean useBrackets;
+        public final int refreshIntervalSeconds;
+        public final int rebuildBatchSize;
+        public final boolean cleanupOnDisable;
+        public final boolean relationalEnabled;
+        public final ChatColor teammateColor;
+        public final ChatColor allyColor;
+        public final ChatColor enemyColor;
+
+        private NametagSettings(FileConfiguration config, Logger logger) {
+            this.enabled = config.getBoolean("nametag-settings.enabled", true);
+            this.showInTablist = config.getBoolean("nametag-settings.show-in-tablist", true);
+            this.useBrackets = config.getBoolean("nametag-settings.use-brackets", true);
+            this.refreshIntervalSeconds = Math.max(0, config.getInt("nametag-settings.refresh-interval", 30));
+            this.rebuildBatchSize = Math.max(1, config.getInt("nametag-settings.rebuild-batch-size", 50));
+            this.cleanupOnDisable = config.getBoolean("nametag-settings.cleanup-on-disable", true);
+            this.relationalEnabled = config.getBoolean("nametag-settings.relational.enabled", false);
+            this.teammateColor = color(config, "nametag-settings.relational.teammate-color", ChatColor.GREEN, logger);
+            this.allyColor = color(config, "nametag-settings.relational.ally-color", ChatColor.LIGHT_PURPLE, logger);
+            this.enemyColor = color(config, "nametag-settings.relational.enemy-color", ChatColor.RED, logger);
+        }
+
+        private static ChatColor color(FileConfiguration config, String path, ChatColor fallback, Logger logger) {
+            String name = config.getString(path);
+            if (name == null) {
+                return fallback;
+            }
+            try {
+                return ChatColor.valueOf(name.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid color for " + path + ": " + name);
+                return fallback;
+            }
+        }
+    }
+
+    /**
+     * How hits between teammates or between players of allied teams are treated
+     */
+    public enum DamagePolicy {
+        /** Hits always go through */
+        ALLOW,
+        /** Hits are always blocked */
+        PROTECT,
+        /** Blocked unless the team (both teams, for allies) has friendly fire enabled */
+        FOLLOW_TEAMS
+    }
+
+    /**
+     * Damage policies that apply inside one world
+     */
+    public static final class WorldPolicy {
+        public static final WorldPolicy UNPROTECTED = new WorldPolicy(DamagePolicy.ALLOW, DamagePolicy.ALLOW);
+
+        public final DamagePolicy teamDamage;
+        public final DamagePolicy allyDamage;
+
+        public WorldPolicy(DamagePolicy teamDamage, DamagePolicy allyDamage) {
+            this.teamDamage = teamDamage;
+            this.allyDamage = allyDamage;
+        }
+    }
+
+    public static final class FriendlyFireSettings {
+        public final boolean defaultEnabled;
+        public final Set<String> protectedWorlds;
+        public final boolean showMessage;
+        public final DamagePolicy allyDamage;
+        private final WorldPolicy protectedPolicy;
+        private final Map<String, WorldPolicy> worldOverrides;
+
+        private FriendlyFireSettings(FileConfiguration config, Logger logger) {
+            this.defaultEnabled = config.getBoolean("friendly-fire.default-enabled", false);
+            this.protectedWorlds = Collections.unmodifiableSet(new HashSet<>(config.getStringList("friendly-fire.protected-worlds")));
+            this.showMessage = config.getBoolean("friendly-fire.show-message", true);
+            this.allyDamage = parsePolicy("friendly-fire.ally-damage", config.getString("friendly-fire.ally-damage", "allow"),
+                    DamagePolicy.ALLOW, logger);
+            this.protectedPolicy = new WorldPolicy(DamagePolicy.FOLLOW_TEAMS, allyDamage);
+
+            Map<String, WorldPolicy> overrides = new HashMap<>();
+            ConfigurationSection worlds = config.getConfigurationSection("friendly-fire.worlds");
+            if (worlds != null) {
+                for (String world : worlds.getKeys(false)) {
+                    String path = "friendly-fire.worlds." + world;
+                    WorldPolicy base = isListed(world) ? protectedPolicy : WorldPolicy.UNPROTECTED;
+                    overrides.put(world, new WorldPolicy(
+                            parsePolicy(path + ".team-damage", config.getString(path + ".team-damage"), base.teamDamage, logger),
+                            parsePolicy(path + ".ally-damage", config.getString(path + ".ally-damage"), base.allyDamage, logger)));
+                }
+            }
+            this.worldOverrides = Collections.unmodifiableMap(overrides);
+        }
+
+        /**
+         * Policy for a world by name. Resolve once per world and cache it - this compares strings.
+         * Protection applies in protected-worlds (every world when the list is empty or
+         * protectUnlisted is set); other worlds allow all damage unless they have an entry
+         * under friendly-fire.worlds.
+         */
+        public WorldPolicy getWorldPolicy(String worldName, boolean protectUnlisted) {
+            WorldPolicy override = worldOverrides.get(worldName);
+            if (override != null) {
+                return override;
+            }
+            return protectUnlisted || isListed(worldName) ? protectedPolicy : WorldPolicy.UNPROTECTED;
+        }
+
+        /**
+         * Whether protected-worlds covers the world (an empty list covers every world)
+         */
+        public boolean isListed(String worldName) {
+            return protectedWorlds.isEmpty() || protectedWorlds.contains(worldName);
+        }
+
+        public boolean hasOverride(String worldName) {
+            return worldOverrides.containsKey(worldName);
+        }
+
+        private static DamagePolicy parsePolicy(String path, String name, DamagePolicy fallback, Logger logger) {
+            if (name == null) {
+                return fallback;
+            }
+            try {
+                return DamagePolicy.valueOf(name.toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid " + path + ": " + name + " (use allow, protect or follow-teams)");
+                return fallback;
+            }
+        }
+    }
+
+    public static final class StatisticsSettings {
+        public final boolean enabled;
+        public final boolean pvpOnly;
+        public final long leaderboardUpdateMillis;
+        public final long flushIntervalTicks;
+        public final long assistWindowMillis;
+        public final int leaderboardSize;
+        public final long seasonLengthMillis;
+        public final boolean antiFarmingEnabled;
+        public final int antiFarmingMaxKills;
+        public final long antiFarmingWindowMillis;
+        public final int antiFarmingTrackedPairs;
+
+        private StatisticsSettings(FileConfiguration config) {
+            this.enabled = config.getBoolean("statistics.enabled", true);
+            this.pvpOnly = config.getBoolean("statistics.pvp-only", true);
+            this.leaderboardUpdateMillis = minutes(Math.max(1, config.getInt("statistics.leaderboard-update-interval", 5)));
+            this.flushIntervalTicks = Math.max(1, config.getInt("statistics.flush-interval-seconds", 30)) * 20L;
+            this.assistWindowMillis = seconds(Math.max(1, config.getInt("statistics.assist-window-seconds", 15)));
+            this.leaderboardSize = Math.max(1, config.getInt("statistics.leaderboard-size", 10));
+            this.seasonLengthMillis = Math.max(0, config.getInt("statistics.season-length-days", 30)) * 24L * 3_600_000L;
+            this.antiFarmingEnabled = config.getBoolean("statistics.anti-farming.enabled", true);
+            this.antiFarmingMaxKills = Math.max(1, config.getInt("statistics.anti-farming.max-kills", 3));
+            this.antiFarmingWindowMillis = minutes(Math.max(1, config.getInt("statistics.anti-farming.window-minutes", 10)));
+            this.antiFarmingTrackedPairs = Math.max(64, config.getInt("statistics.anti-farming.tracked-pairs", 1024));
+        }
+    }
+
+    public static final class ChatSettings {
+        public final boolean rateLimitEnabled;
+        public final RateLimit teamChatLimit;
+        public final RateLimit allyChatLimit;
+        public final boolean historyEnabled;
+        public final int historyLinesPerTeam;
+        public final int historyMaxTeams;
+        public final long historyIdleMillis;
+        public final int historyReplayOnJoin;
+        public final boolean logToFile;
+        public final boolean logToConsole;
+        public final long logFlushIntervalTicks;
+
+        private ChatSettings(FileConfiguration config) {
+            this.rateLimitEnabled = config.getBoolean("chat.rate-limit.enabled", true);
+            this.teamChatLimit = new RateLimit(config.getConfigurationSection("chat.rate-limit.team-chat"), 5, 1.0, 20, 5.0);
+            this.allyChatLimit = new RateLimit(config.getConfigurationSection("chat.rate-limit.ally-chat"), 3, 0.5, 10, 2.0);
+            this.historyEnabled = config.getBoolean("chat.history.enabled", true);
+            this.historyLinesPerTeam = Math.max(1, config.getInt("chat.history.lines-per-team", 50));
+            this.historyMaxTeams = Math.max(1, config.getInt("chat.history.max-teams", 200));
+            this.historyIdleMillis = minutes(Math.max(1, config.getInt("chat.history.idle-minutes", 60)));
+            this.historyReplayOnJoin = Math.max(0, config.getInt("chat.history.replay-on-join", 5));
+            this.logToFile = config.getBoolean("chat.log.file", true);
+            this.logToConsole = config.getBoolean("chat.log.console", false);
+            this.logFlushIntervalTicks = Math.max(1, config.getInt("chat.log.flush-interval-seconds", 2)) * 20L;
+        }
+    }
+
+    public static final class RateLimit {
+        public final int playerBurst;
+        public final double playerPerSecond;
+        public final int teamBurst;
+        public final double teamPerSecond;
+
+        private RateLimit(ConfigurationSection section, int playerBurst, double playerPerSecond, int teamBurst, double teamPerSecond) {
+            this.playerBurst = Math.max(1, section != null ? section.getInt("player-burst", playerBurst) : playerBurst);
+            this.playerPerSecond = Math.max(0.01, section != null ? section.getDouble("player-per-second", playerPerSecond) : playerPerSecond);
+            this.teamBurst = Math.max(1, section != null ? section.getInt("team-burst", teamBurst) : teamBurst);
+            this.teamPerSecond = Math.max(0.01, section != null ? section.getDouble("team-per-second", teamPerSecond) : teamPerSecond);
+        }
+    }
+
+    public static final class CombatLogSettings {
+        public final boolean enabled;
+        public final long maxFileBytes;
+        public final long flushIntervalTicks;
+
+        private CombatLogSettings(FileConfiguration config) {
+            this.enabled = config.getBoolean("combat-log.enabled", true);
+            this.maxFileBytes = Math.max(1, config.getInt("combat-log.max-file-mb", 16)) * 1024L * 1024L;
+            this.flushIntervalTicks = Math.max(1, config.getInt("combat-log.flush-interval-seconds", 5)) * 20L;
+        }
+    }
+
+    /**
+     * Translated (&-colored) message templates from the messages section
+     */
+    public static final class Messages {
+        private final String prefix;
+        private final Map<String, String> templates;
+
+        private Messages(FileConfiguration config) {
+            ConfigurationSection section = config.getConfigurationSection("messages");
+            Map<String, String> loaded = new HashMap<>();
+            String loadedPrefix = "";
+
+            if (section != null) {
+                for (String key : section.getKeys(false)) {
+                    String value = ChatColor.translateAlternateColorCodes('&', section.getString(key, ""));
+                    if (key.equals("prefix")) {
+                        loadedPrefix = value;
+                    } else {
+                        loaded.put(key, value);
+                    }
+                }
+            }
+
+            this.prefix = loadedPrefix;
+            this.templates = Collections.unmodifiableMap(loaded);
+        }
+
+        /**
+         * Prefixed message for a key, with {name} placeholders replaced from name/value pairs
+         */
+        public String get(String key, String... placeholders) {
+            String message = templates.get(key);
+            if (message == null) {
+                return prefix + key;
+            }
+
+            for (int i = 0; i + 1 < placeholders.length; i += 2) {
+                message = message.replace("{" + placeholders[i] + "}", placeholders[i + 1]);
+            }
+            return prefix + message;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    public static final class GuiSettings {
+        public final boolean customTextures;
+        public final int autoRefreshSeconds;
+        public final int teamsPerPage;
+
+        private GuiSettings(FileConfiguration config) {
+            this.customTextures = config.getBoolean("gui.custom-textures", false);
+            this.autoRefreshSeconds = Math.max(0, config.getInt("gui.auto-refresh-seconds", 3));
+            this.teamsPerPage = Math.max(1, Math.min(28, config.getInt("gui.teams-per-page", 28)));
+        }
+    }
+
+    public static final class PerformanceSettings {
+        public final long autoSaveIntervalTicks;
+        public final boolean enableCaching;
+
+        private PerformanceSettings(FileConfiguration config) {
+            this.autoSaveIntervalTicks = Math.max(1, config.getInt("performance.auto-save-interval", 5)) * 60L * 20L;
+            this.enableCaching = config.getBoolean("performance.enable-caching", true);
+        }
+    }
+
+    public static final class DebugSettings {
+        public final boolean enabled;
+        public final boolean logEvents;
+        public final int bufferSize;
+
+        private DebugSettings(FileConfiguration config) {
+            this.enabled = config.getBoolean("debug.enabled", false);
+            this.logEvents = config.getBoolean("debug.log-events", false);
+            this.bufferSize = Math.max(16, config.getInt("debug.buffer-size", 500));
+        }
+    }
+}
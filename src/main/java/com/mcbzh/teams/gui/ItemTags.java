@@ -0,0 +1,65 @@
+package com.mcbzh.teams.gui;
+
+import com.mcbzh.teams.TeamsPlugin;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainerView;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.UUID;
+
+/**
+ * Identifies the team or player a GUI item stands for, stored in the item's PersistentDataContainer.
+ * Click handlers read the ID back instead of parsing display names.
+ */
+public final class ItemTags {
+    private final NamespacedKey teamKey;
+    private final NamespacedKey playerKey;
+
+    public ItemTags(TeamsPlugin plugin) {
+        this.teamKey = new NamespacedKey(plugin, "team-id");
+        this.playerKey = new NamespacedKey(plugin, "player-id");
+    }
+
+    public void tagTeam(ItemMeta meta, UUID teamId) {
+        meta.getPersistentDataContainer().set(teamKey, PersistentDataType.STRING, teamId.toString());
+    }
+
+    public void tagPlayer(ItemMeta meta, UUID playerId) {
+        meta.getPersistentDataContainer().set(playerKey, PersistentDataType.STRING, playerId.toString());
+    }
+
+    /**
+     * Team ID stored on an item, or null if the item has none
+     */
+    public UUID getTeamId(ItemStack item) {
+        return read(item, teamKey);
+    }
+
+    /**
+     * Player ID stored on an item, or null if the item has none
+     */
+    public UUID getPlayerId(ItemStack item) {
+        return read(item, playerKey);
+    }
+
+    private UUID read(ItemStack item, NamespacedKey key) {
+        if (item == null) {
+            return null;
+        }
+
+        // Reads the item's data directly, without cloning its meta
+        PersistentDataContainerView data = item.getPersistentDataContainer();
+        String value = data.get(key, PersistentDataType.STRING);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.mcbzh.teams.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * Base class for the plugin's chest menus.
+ *
+ * The menu is the holder of its own inventory, so GUIListener recognises plugin menus with a
+ * single instanceof check (titles play no part). Each slot maps to an optional action, so a click
+ * is dispatched with an array index. Subclasses fill the inventory in render().
+ *
+ * Open menus are tracked by MenuTracker. When getDataVersion() moves on, the menu is rendered
+ * again into a scratch array and only the slots whose item changed are sent to the client.
+ */
+public abstract class Menu implements InventoryHolder {
+    protected final Player viewer;
+    private final MenuTracker tracker;
+    private final Inventory inventory;
+    private final MenuAction[] actions;
+
+    // Items placed by the last render, compared against the next one to find changed slots
+    private ItemStack[] rendered;
+    private ItemStack[] drawing;
+    private long renderedVersion;
+
+    protected Menu(MenuTracker tracker, Player viewer, int size, String title) {
+        this.tracker = tracker;
+        this.viewer = viewer;
+        this.inventory = Bukkit.createInventory(this, size, title);
+        this.actions = new MenuAction[size];
+        this.rendered = new ItemStack[size];
+    }
+
+    /**
+     * Fill the item and action table through setItem
+     */
+    protected abstract void render();
+
+    /**
+     * Version of the data this menu shows; the menu is refreshed when it changes.
+     * Menus that never change can keep the default.
+     */
+    protected long getDataVersion() {
+        return 0;
+    }
+
+    public void open() {
+        renderedVersion = getDataVersion();
+        drawing = rendered;
+        render();
+        drawing = null;
+
+        inventory.setContents(rendered);
+        viewer.openInventory(inventory);
+        tracker.track(this);
+    }
+
+    public boolean isStale() {
+        return getDataVersion() != renderedVersion;
+    }
+
+    /**
+     * Render again and patch the slots that changed, without reopening the inventory
+     */
+    public void refresh() {
+        renderedVersion = getDataVersion();
+        ItemStack[] next = new ItemStack[rendered.length];
+        Arrays.fill(actions, null);
+
+        drawing = next;
+        render();
+        drawing = null;
+
+        for (int slot = 0; slot < next.length; slot++) {
+            ItemStack item = next[slot];
+            ItemStack previous = rendered[slot];
+            // Cached items come back as the same instance, so most slots stop at the identity check
+            if (item != previous && (item == null || !item.equals(previous))) {
+                inventory.setItem(slot, item);
+            }
+        }
+        rendered = next;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public Player getViewer() {
+        return viewer;
+    }
+
+    /**
+     * Place a decorative item with no action
+     */
+    protected void setItem(int slot, ItemStack item) {
+        setItem(slot, item, null);
+    }
+
+    protected void setItem(int slot, ItemStack item, MenuAction action) {
+        drawing[slot] = item;
+        actions[slot] = action;
+    }
+
+    /**
+     * Run the action bound to a slot of this menu, if any
+     */
+    public void handleClick(int slot, ClickType click, ItemStack item) {
+        if (slot < 0 || slot >= actions.length) {
+            return;
+        }
+
+        MenuAction action = actions[slot];
+        if (action != null) {
+            action.onClick(viewer, click, item);
+            // The action may have changed team data shown in this or other open menus
+            tracker.requestRefresh();
+        }
+    }
+
+    /**
+     * Called when the viewer closes this menu
+     */
+    public void handleClose() {
+        tracker.untrack(this);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mcbzh.teams.gui;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * What happens when a slot of a plugin menu is clicked
+ */
+@FunctionalInterface
+public interface MenuAction {
+    void onClick(Player player, ClickType click, ItemStack item);
+}
@@ -0,0 +1,101 @@
+package com.mcbzh.teams.gui;
+
+import com.mcbzh.teams.TeamsPlugin;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps track of the plugin menus players currently have open and patches them when the data
+ * they show changes.
+ *
+ * Menus are checked every gui.auto-refresh-seconds (0 disables the timer) and on the tick after
+ * any menu action or team change (saves, membership, kills, joins and quits), so a change made
+ * anywhere also updates everyone looking at the same team.
+ * A check only compares data versions; menus whose data did not change are not rendered at all.
+ */
+public class MenuTracker {
+    private final TeamsPlugin plugin;
+
+    // Viewer -> the menu they have open (a player sees at most one inventory at a time)
+    private final Map<UUID, Menu> openMenus = new HashMap<>();
+    private BukkitTask refreshTask;
+    private boolean refreshQueued;
+
+    public MenuTracker(TeamsPlugin plugin) {
+        this.plugin = plugin;
+
+        int seconds = plugin.getSettings().gui.autoRefreshSeconds;
+        if (seconds > 0) {
+            long interval = seconds * 20L;
+            refreshTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::refreshStale, interval, interval);
+        }
+    }
+
+    void track(Menu menu) {
+        openMenus.put(menu.getViewer().getUniqueId(), menu);
+    }
+
+    void untrack(Menu menu) {
+        // Opening a menu closes the previous one first, so only drop the entry if it is still this menu
+        openMenus.remove(menu.getViewer().getUniqueId(), menu);
+    }
+
+    /**
+     * Check open menus on the next tick; repeated calls within a tick share one check
+     */
+    public void requestRefresh() {
+        // Team data is still saved while the plugin disables, when no task may be scheduled
+        if (refreshQueued || !plugin.isEnabled()) {
+            return;
+        }
+        refreshQueued = true;
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            refreshQueued = false;
+            refreshStale();
+        });
+    }
+
+    /**
+     * Patch every open menu whose data changed since it was last rendered
+     */
+    public void refreshStale() {
+        Iterator<Menu> iterator = openMenus.values().iterator();
+        while (iterator.hasNext()) {
+            Menu menu = iterator.next();
+            Player viewer = menu.getViewer();
+
+            // Missed close events (e.g. a kick mid-click) leave entries behind - drop them here
+            InventoryHolder holder = viewer.getOpenInventory().getTopInventory().getHolder(false);
+            if (!viewer.isOnline() || holder != menu) {
+                iterator.remove();
+                continue;
+            }
+
+            if (menu.isStale()) {
+                menu.refresh();
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+
+        // A menu left open across /reload belongs to the old classloader, so the new instance's
+        // GUIListener would not recognise it and its items could be taken - close them all now.
+        // Closing fires InventoryCloseEvent, which untracks the menu, so iterate over a copy.
+        for (Menu menu : new ArrayList<>(openMenus.values())) {
+            menu.getViewer().closeInventory();
+        }
+        openMenus.clear();
+    }
+}
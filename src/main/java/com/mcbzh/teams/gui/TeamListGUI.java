@@ -1,112 +1,324 @@
 package com.mcbzh.teams.gui;
 
 import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.managers.TeamIndex;
 import com.mcbzh.teams.managers.TeamManager;
+import com.mcbzh.teams.models.PlayerSession;
 import com.mcbzh.teams.models.Team;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.SkullMeta;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public class TeamListGUI {
     private final TeamsPlugin plugin;
     private final TeamManager teamManager;
+    private final TeamManageGUI teamManageGUI;
+    private final ItemTags tags;
+
+    // Rendered team banners, keyed by team ID and rebuilt when the team's version changes
+    private final Map<UUID, CachedTeamItem> itemCache = new HashMap<>();
+
+    // Items that never change, built once
+    private final ItemStack borderGlass;
+    private final ItemStack createTeamItem;
+    private final ItemStack closeItem;
+    private final Map<Integer, ItemStack> previousPageItems = new HashMap<>();
+    private final Map<Integer, ItemStack> nextPageItems = new HashMap<>();
+    private final Map<TeamIndex.SortMode, ItemStack> sortItems = new EnumMap<>(TeamIndex.SortMode.class);
+    private final Map<Filter, ItemStack> filterItems = new EnumMap<>(Filter.class);
+    private final ItemStack searchItem;
 
     public TeamListGUI(TeamsPlugin plugin) {
         this.plugin = plugin;
         this.teamManager = plugin.getTeamManager();
+        this.teamManageGUI = new TeamManageGUI(plugin);
+        this.tags = new ItemTags(plugin);
+
+        this.borderGlass = createItem(Material.GRAY_STAINED_GLASS_PANE, " ");
+        this.createTeamItem = createItem(Material.NETHER_STAR,
+                ChatColor.GREEN + "Create New Team",
+                ChatColor.GRAY + "Click to create your own team!",
+                "",
+                ChatColor.YELLOW + "⚠ You must not be in a team");
+        this.closeItem = createItem(Material.BARRIER,
+                ChatColor.RED + "Close",
+                ChatColor.GRAY + "Close this menu");
+        this.searchItem = createItem(Material.OAK_SIGN,
+                ChatColor.AQUA + "Search",
+                ChatColor.GRAY + "Find teams by name",
+                "",
+                ChatColor.WHITE + "Click to search");
     }
 
     public void openTeamList(Player player, int page) {
-        List<Team> teams = teamManager.getAllTeams();
-        int maxPage = (int) Math.ceil(teams.size() / 28.0);
+        openTeamList(player, browse(player, TeamIndex.SortMode.KILLS, Filter.ALL, null), page);
+    }
+
+    /**
+     * Open the team list showing only teams whose name starts with the query
+     */
+    public void searchTeams(Player player, String query) {
+        openTeamList(player, browse(player, TeamIndex.SortMode.KILLS, Filter.ALL, query), 1);
+    }
+
+    private void openTeamList(Player player, Browse browse, int page) {
+        int maxPage = getMaxPage(browse.teams.length);
 
-        if (maxPage == 0) maxPage = 1;
         if (page > maxPage) page = maxPage;
         if (page < 1) page = 1;
 
-        Inventory inv = Bukkit.createInventory(null, 54,
-                ChatColor.DARK_GREEN + "Teams " + ChatColor.GRAY + "(" + page + "/" + maxPage + ")");
+        pruneItemCache();
+        new TeamListMenu(player, browse, page, maxPage).open();
+    }
 
-        // Add teams to inventory
-        int startIndex = (page - 1) * 28;
-        int endIndex = Math.min(startIndex + 28, teams.size());
+    /**
+     * Freeze the order of the teams matching a sort, filter and search. Paging through the
+     * snapshot only slices it, and the order stays put while the player browses even if
+     * statistics change in the meantime.
+     */
+    private Browse browse(Player viewer, TeamIndex.SortMode sort, Filter filter, String query) {
+        TeamIndex index = teamManager.getTeamIndex();
+
+        Team[] candidates;
+        if (query != null) {
+            // Name matches are few, so sorting them here is cheap
+            List<Team> matches = index.searchByName(query);
+            matches.sort(sort.getComparator());
+            candidates = matches.toArray(new Team[0]);
+        } else {
+            candidates = index.getSorted(sort); // Shared and never modified, safe to keep as is
+        }
 
-        int slot = 10;
-        for (int i = startIndex; i < endIndex; i++) {
-            Team team = teams.get(i);
+        if (filter != Filter.ALL) {
+            Team viewerTeam = teamManager.getPlayerTeam(viewer.getUniqueId());
+            List<Team> filtered = new ArrayList<>();
+            for (Team team : candidates) {
+                if (filter.matches(team, viewer, viewerTeam, plugin.getSettings().teams.invitationExpiryMillis)) {
+                    filtered.add(team);
+                }
+            }
+            candidates = filtered.toArray(new Team[0]);
+        }
 
-            ItemStack item = createTeamItem(team, player);
-            inv.setItem(slot, item);
+        return new Browse(sort, filter, query, candidates);
+    }
+
+    private int getMaxPage(int teamCount) {
+        int perPage = plugin.getSettings().gui.teamsPerPage;
+        return Math.max(1, (teamCount + perPage - 1) / perPage);
+    }
 
-            slot++;
-            if (slot == 17) slot = 19;
-            if (slot == 26) slot = 28;
-            if (slot == 35) slot = 37;
+    /**
+     * One page of a browse snapshot. Refreshes update the teams shown in place but never
+     * reorder them; deleted teams leave an empty slot.
+     */
+    private class TeamListMenu extends Menu {
+        private final Browse browse;
+        private final int page;
+        private final int maxPage;
+
+        TeamListMenu(Player viewer, Browse browse, int page, int maxPage) {
+            super(plugin.getMenuTracker(), viewer, 54,
+                    ChatColor.DARK_GREEN + "Teams " + ChatColor.GRAY + "(" + page + "/" + maxPage + ")");
+            this.browse = browse;
+            this.page = page;
+            this.maxPage = maxPage;
         }
 
-        // Navigation and control items
-        addBorderGlass(inv);
+        private int getStartIndex() {
+            return (page - 1) * plugin.getSettings().gui.teamsPerPage;
+        }
 
-        // Previous page
-        if (page > 1) {
-            ItemStack prevPage = createItem(Material.ARROW,
-                    ChatColor.YELLOW + "Previous Page",
-                    ChatColor.GRAY + "Go to page " + (page - 1));
-            inv.setItem(48, prevPage);
+        private int getEndIndex() {
+            return Math.min(getStartIndex() + plugin.getSettings().gui.teamsPerPage, browse.teams.length);
         }
 
-        // Next page
-        if (page < maxPage) {
-            ItemStack nextPage = createItem(Material.ARROW,
-                    ChatColor.YELLOW + "Next Page",
-                    ChatColor.GRAY + "Go to page " + (page + 1));
-            inv.setItem(50, nextPage);
+        @Override
+        protected long getDataVersion() {
+            // Only the teams on this page and the viewer's own team affect what is shown
+            long version = (long) teamManager.getTeamListVersion() << 32;
+            for (int i = getStartIndex(); i < getEndIndex(); i++) {
+                version += browse.teams[i].getVersion();
+            }
+            Team viewerTeam = teamManager.getPlayerTeam(viewer.getUniqueId());
+            return version * 31 + (viewerTeam != null ? viewerTeam.getSlot() : PlayerSession.NO_TEAM);
         }
 
-        // Create new team button
-        Team playerTeam = teamManager.getPlayerTeam(player.getUniqueId());
-        if (playerTeam == null) {
-            ItemStack createTeam = createItem(Material.NETHER_STAR,
-                    ChatColor.GREEN + "Create New Team",
-                    ChatColor.GRAY + "Click to create your own team!",
+        @Override
+        protected void render() {
+            // Add teams to inventory
+            int slot = 10;
+            for (int i = getStartIndex(); i < getEndIndex(); i++) {
+                Team team = browse.teams[i];
+
+                if (teamManager.getTeam(team.getId()) == team) {
+                    setItem(slot, createTeamItem(team, viewer), TeamListGUI.this::handleTeamClick);
+                }
+
+                slot++;
+                if (slot == 17) slot = 19;
+                if (slot == 26) slot = 28;
+                if (slot == 35) slot = 37;
+            }
+
+            // Navigation and control items
+            addBorderGlass(this);
+
+            // Previous page
+            if (page > 1) {
+                ItemStack prevPage = previousPageItems.computeIfAbsent(page - 1, target -> createItem(Material.ARROW,
+                        ChatColor.YELLOW + "Previous Page",
+                        ChatColor.GRAY + "Go to page " + target));
+                setItem(48, prevPage, (player, click, item) -> openTeamList(player, browse, page - 1));
+            }
+
+            // Next page
+            if (page < maxPage) {
+                ItemStack nextPage = nextPageItems.computeIfAbsent(page + 1, target -> createItem(Material.ARROW,
+                        ChatColor.YELLOW + "Next Page",
+                        ChatColor.GRAY + "Go to page " + target));
+                setItem(50, nextPage, (player, click, item) -> openTeamList(player, browse, page + 1));
+            }
+
+            // Sort order - starts a new snapshot on page 1
+            setItem(46, sortItems.computeIfAbsent(browse.sort, TeamListGUI.this::createSortItem),
+                    (player, click, item) -> openTeamList(player,
+                            browse(player, browse.sort.next(), browse.filter, browse.query), 1));
+
+            // Filter
+            setItem(47, filterItems.computeIfAbsent(browse.filter, TeamListGUI.this::createFilterItem),
+                    (player, click, item) -> openTeamList(player,
+                            browse(player, browse.sort, browse.filter.next(), browse.query), 1));
+
+            // Search
+            if (browse.query == null) {
+                setItem(51, searchItem, (player, click, item) -> {
+                    player.closeInventory();
+                    player.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team list <name>" +
+                            ChatColor.YELLOW + " to search teams by name!");
+                });
+            } else {
+                ItemStack clearSearch = createItem(Material.OAK_SIGN,
+                        ChatColor.AQUA + "Search: " + ChatColor.WHITE + browse.query,
+                        "",
+                        ChatColor.WHITE + "Click to clear");
+                setItem(51, clearSearch, (player, click, item) -> openTeamList(player,
+                        browse(player, browse.sort, browse.filter, null), 1));
+            }
+
+            // Create new team button
+            Team playerTeam = teamManager.getPlayerTeam(viewer.getUniqueId());
+            if (playerTeam == null) {
+                setItem(49, createTeamItem, (player, click, item) -> {
+                    player.closeInventory();
+                    player.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team create <name>" +
+                            ChatColor.YELLOW + " to create a team!");
+                });
+            }
+
+            // Info item
+            ItemStack info = createItem(Material.BOOK,
+                    ChatColor.AQUA + "Team Information",
+                    ChatColor.GRAY + "Showing: " + ChatColor.WHITE + browse.teams.length + " teams",
+                    ChatColor.GRAY + "Sorted by: " + ChatColor.WHITE + browse.sort.getDisplayName(),
+                    ChatColor.GRAY + "Filter: " + ChatColor.WHITE + browse.filter.displayName,
                     "",
-                    ChatColor.YELLOW + "⚠ You must not be in a team");
-            inv.setItem(49, createTeam);
+                    ChatColor.YELLOW + "Click on a team to view details",
+                    ChatColor.YELLOW + "or request to join!");
+            setItem(4, info);
+
+            // Close button
+            setItem(45, closeItem, (player, click, item) -> player.closeInventory());
         }
+    }
 
-        // Info item
-        ItemStack info = createItem(Material.BOOK,
-                ChatColor.AQUA + "Team Information",
-                ChatColor.GRAY + "Total Teams: " + ChatColor.WHITE + teams.size(),
-                "",
-                ChatColor.YELLOW + "Click on a team to view details",
-                ChatColor.YELLOW + "or request to join!");
-        inv.setItem(4, info);
+    private void handleTeamClick(Player player, ClickType click, ItemStack clicked) {
+        UUID teamId = tags.getTeamId(clicked);
+        Team clickedTeam = teamId != null ? teamManager.getTeam(teamId) : null;
+        if (clickedTeam == null) return;
 
-        // Close button
-        ItemStack close = createItem(Material.BARRIER,
-                ChatColor.RED + "Close",
-                ChatColor.GRAY + "Close this menu");
-        inv.setItem(45, close);
+        Team playerTeam = teamManager.getPlayerTeam(player.getUniqueId());
+
+        // If player is in this team, open management
+        if (playerTeam != null && playerTeam.equals(clickedTeam)) {
+            teamManageGUI.openTeamManageMenu(player);
+            return;
+        }
+
+        // If player has invitation, join
+        if (clickedTeam.hasInvitation(player.getUniqueId(), plugin.getSettings().teams.invitationExpiryMillis)) {
+            if (playerTeam != null) {
+                player.sendMessage(ChatColor.RED + "You must leave your current team first!");
+                return;
+            }
+
+            if (clickedTeam.isFull()) {
+                player.sendMessage(ChatColor.RED + "That team is now full!");
+                return;
+            }
 
-        player.openInventory(inv);
+            teamManager.addPlayerToTeam(player.getUniqueId(), clickedTeam);
+            player.closeInventory();
+            player.sendMessage(ChatColor.GREEN + "Successfully joined " + clickedTeam.getColoredName() + "!");
+            teamManager.broadcastToTeam(clickedTeam,
+                    ChatColor.YELLOW + player.getName() + " has joined the team!");
+            return;
+        }
+
+        // Otherwise show team info
+        player.closeInventory();
+        player.sendMessage(teamManager.formatTeamInfo(clickedTeam));
     }
 
+    /**
+     * Team banner as seen by one viewer. The banner for each viewer state is built once per team
+     * version and reused until the team changes; only the viewer's state is worked out per call.
+     */
     private ItemStack createTeamItem(Team team, Player viewer) {
-        Material material = team.isFull() ? Material.RED_BANNER : Material.WHITE_BANNER;
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
+        CachedTeamItem cached = itemCache.get(team.getId());
+        if (cached == null || cached.version != team.getVersion()) {
+            cached = new CachedTeamItem(team.getVersion(), buildBaseLore(team));
+            itemCache.put(team.getId(), cached);
+        }
 
-        meta.setDisplayName(team.getColoredName());
+        ViewerState state = getViewerState(team, viewer);
+        ItemStack item = cached.variants[state.ordinal()];
+        if (item == null) {
+            item = buildTeamItem(team, cached.baseLore, state);
+            cached.variants[state.ordinal()] = item;
+        }
+        return item;
+    }
 
+    private ViewerState getViewerState(Team team, Player viewer) {
+        Team viewerTeam = teamManager.getPlayerTeam(viewer.getUniqueId());
+
+        if (viewerTeam != null && viewerTeam.equals(team)) {
+            return ViewerState.OWN_TEAM;
+        } else if (team.isFull()) {
+            return ViewerState.FULL;
+        } else if (viewerTeam != null) {
+            return ViewerState.OTHER_TEAM;
+        } else if (team.hasInvitation(viewer.getUniqueId(), plugin.getSettings().teams.invitationExpiryMillis)) {
+            return ViewerState.INVITED;
+        }
+        return ViewerState.CAN_REQUEST;
+    }
+
+    /**
+     * The viewer-independent part of a team banner's lore
+     */
+    private List<String> buildBaseLore(Team team) {
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
         lore.add(ChatColor.YELLOW + "Leader: " + ChatColor.WHITE +
@@ -123,23 +335,37 @@ public class TeamListGUI {
         lore.add(ChatColor.WHITE + "  📊 K/D: " + ChatColor.GOLD +
                 String.format("%.2f", team.getKDRatio()));
         lore.add("");
+        return lore;
+    }
 
-        Team viewerTeam = teamManager.getPlayerTeam(viewer.getUniqueId());
+    private ItemStack buildTeamItem(Team team, List<String> baseLore, ViewerState state) {
+        Material material = team.isFull() ? Material.RED_BANNER : Material.WHITE_BANNER;
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
 
-        if (viewerTeam != null && viewerTeam.equals(team)) {
-            lore.add(ChatColor.GREEN + "✓ You are in this team!");
-            lore.add(ChatColor.YELLOW + "Click to manage");
-        } else if (team.isFull()) {
-            lore.add(ChatColor.RED + "✗ Team is full");
-        } else if (viewerTeam != null) {
-            lore.add(ChatColor.RED + "✗ You're already in a team");
-        } else if (team.hasInvitation(viewer.getUniqueId())) {
-            lore.add(ChatColor.GREEN + "✓ You have an invitation!");
-            lore.add(ChatColor.YELLOW + "Click to join");
-        } else {
-            lore.add(ChatColor.YELLOW + "Click to request joining");
+        meta.setDisplayName(team.getColoredName());
+        tags.tagTeam(meta, team.getId());
+
+        List<String> lore = new ArrayList<>(baseLore);
+        switch (state) {
+            case OWN_TEAM:
+                lore.add(ChatColor.GREEN + "✓ You are in this team!");
+                lore.add(ChatColor.YELLOW + "Click to manage");
+                break;
+            case FULL:
+                lore.add(ChatColor.RED + "✗ Team is full");
+                break;
+            case OTHER_TEAM:
+                lore.add(ChatColor.RED + "✗ You're already in a team");
+                break;
+            case INVITED:
+                lore.add(ChatColor.GREEN + "✓ You have an invitation!");
+                lore.add(ChatColor.YELLOW + "Click to join");
+                break;
+            default:
+                lore.add(ChatColor.YELLOW + "Click to request joining");
+                break;
         }
-
         lore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
 
         meta.setLore(lore);
@@ -148,27 +374,128 @@ public class TeamListGUI {
         return item;
     }
 
-    private void addBorderGlass(Inventory inv) {
-        ItemStack glass = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
-        ItemMeta meta = glass.getItemMeta();
-        meta.setDisplayName(" ");
-        glass.setItemMeta(meta);
+    /**
+     * Drop cached banners of teams that no longer exist
+     */
+    private void pruneItemCache() {
+        if (itemCache.size() <= teamManager.getTeamCount()) {
+            return;
+        }
+        itemCache.keySet().removeIf(id -> teamManager.getTeam(id) == null);
+    }
+
+    private ItemStack createSortItem(TeamIndex.SortMode current) {
+        List<String> lore = new ArrayList<>();
+        for (TeamIndex.SortMode mode : TeamIndex.SortMode.values()) {
+            lore.add((mode == current ? ChatColor.GREEN + "▶ " : ChatColor.GRAY + "  ") + mode.getDisplayName());
+        }
+        lore.add("");
+        lore.add(ChatColor.WHITE + "Click to change");
+        return createItem(Material.COMPARATOR, ChatColor.GOLD + "Sort: " + current.getDisplayName(),
+                lore.toArray(new String[0]));
+    }
+
+    private ItemStack createFilterItem(Filter current) {
+        List<String> lore = new ArrayList<>();
+        for (Filter filter : Filter.values()) {
+            lore.add((filter == current ? ChatColor.GREEN + "▶ " : ChatColor.GRAY + "  ") + filter.displayName);
+        }
+        lore.add("");
+        lore.add(ChatColor.WHITE + "Click to change");
+        return createItem(Material.HOPPER, ChatColor.GOLD + "Filter: " + current.displayName,
+                lore.toArray(new String[0]));
+    }
+
+    /**
+     * Which teams the browser shows
+     */
+    private enum Filter {
+        ALL("All teams"),
+        JOINABLE("Joinable"),
+        INVITED("Invited"),
+        ALLIES("Allies");
+
+        final String displayName;
+
+        Filter(String displayName) {
+            this.displayName = displayName;
+        }
+
+        boolean matches(Team team, Player viewer, Team viewerTeam, long invitationExpiry) {
+            switch (this) {
+                case JOINABLE:
+                    return viewerTeam == null && !team.isFull();
+                case INVITED:
+                    return team.hasInvitation(viewer.getUniqueId(), invitationExpiry);
+                case ALLIES:
+                    return viewerTeam != null && viewerTeam.isAlly(team.getId());
+                default:
+                    return true;
+            }
+        }
+
+        Filter next() {
+            Filter[] filters = values();
+            return filters[(ordinal() + 1) % filters.length];
+        }
+    }
+
+    /**
+     * A frozen team order for one sort, filter and search
+     */
+    private static final class Browse {
+        final TeamIndex.SortMode sort;
+        final Filter filter;
+        final String query; // null when not searching
+        final Team[] teams;
+
+        Browse(TeamIndex.SortMode sort, Filter filter, String query, Team[] teams) {
+            this.sort = sort;
+            this.filter = filter;
+            this.query = query;
+            this.teams = teams;
+        }
+    }
+
+    /**
+     * What a viewer sees at the bottom of a team banner
+     */
+    private enum ViewerState {
+        OWN_TEAM, FULL, OTHER_TEAM, INVITED, CAN_REQUEST
+    }
+
+    /**
+     * Banners for one team version, one per viewer state (built on first use)
+     */
+    private static final class CachedTeamItem {
+        final int version;
+        final List<String> baseLore;
+        final ItemStack[] variants = new ItemStack[ViewerState.values().length];
+
+        CachedTeamItem(int version, List<String> baseLore) {
+            this.version = version;
+            this.baseLore = baseLore;
+        }
+    }
+
+    private void addBorderGlass(Menu menu) {
+        ItemStack glass = borderGlass;
 
         // Top and bottom rows
         for (int i = 0; i < 9; i++) {
-            inv.setItem(i, glass);
-            inv.setItem(i + 45, glass);
+            menu.setItem(i, glass);
+            menu.setItem(i + 45, glass);
         }
 
         // Side columns
-        inv.setItem(9, glass);
-        inv.setItem(18, glass);
-        inv.setItem(27, glass);
-        inv.setItem(36, glass);
-        inv.setItem(17, glass);
-        inv.setItem(26, glass);
-        inv.setItem(35, glass);
-        inv.setItem(44, glass);
+        menu.setItem(9, glass);
+        menu.setItem(18, glass);
+        menu.setItem(27, glass);
+        menu.setItem(36, glass);
+        menu.setItem(17, glass);
+        menu.setItem(26, glass);
+        menu.setItem(35, glass);
+        menu.setItem(44, glass);
     }
 
     private ItemStack createItem(Material material, String name, String... lore) {
@@ -188,14 +515,7 @@ public class TeamListGUI {
         return item;
     }
 
-    private String getPlayerName(java.util.UUID uuid) {
-        Player player = Bukkit.getPlayer(uuid);
-        if (player != null) {
-            return player.getName();
-        }
-
-        org.bukkit.OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
-        String name = offlinePlayer.getName();
-        return name != null ? name : "Unknown";
+    private String getPlayerName(UUID uuid) {
+        return plugin.getProfileCache().getDisplayName(uuid);
     }
 }
@@ -1,13 +1,16 @@
 package com.mcbzh.teams.gui;
 
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
 import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.managers.ProfileCache;
 import com.mcbzh.teams.managers.TeamManager;
 import com.mcbzh.teams.models.Team;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
@@ -15,14 +18,21 @@ import org.bukkit.inventory.meta.SkullMeta;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class TeamManageGUI {
     private final TeamsPlugin plugin;
     private final TeamManager teamManager;
+    private final ItemTags tags;
+
+    // Border item shared by every menu, built once
+    private final ItemStack borderGlass;
 
     public TeamManageGUI(TeamsPlugin plugin) {
         this.plugin = plugin;
         this.teamManager = plugin.getTeamManager();
+        this.tags = new ItemTags(plugin);
+        this.borderGlass = createItem(Material.GRAY_STAINED_GLASS_PANE, " ");
     }
 
     public void openTeamManageMenu(Player player) {
@@ -32,360 +42,591 @@ public class TeamManageGUI {
             return;
         }
 
-        boolean isLeader = team.isLeader(player.getUniqueId());
-        boolean isModerator = team.isModerator(player.getUniqueId());
-
-        Inventory inv = Bukkit.createInventory(null, 54,
-                ChatColor.DARK_GREEN + "Manage: " + team.getColoredName());
-
-        addBorderGlass(inv);
-
-        // Team info
-        ItemStack info = new ItemStack(Material.BOOK);
-        ItemMeta infoMeta = info.getItemMeta();
-        infoMeta.setDisplayName(ChatColor.GOLD + "Team Information");
-        List<String> infoLore = new ArrayList<>();
-        infoLore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
-        infoLore.add(ChatColor.YELLOW + "Name: " + team.getColoredName());
-        infoLore.add(ChatColor.YELLOW + "Tag: " + team.getColoredTag());
-        infoLore.add(ChatColor.YELLOW + "Members: " + ChatColor.WHITE +
-                team.getMemberCount() + "/" + team.getMaxMembers());
-        infoLore.add(ChatColor.YELLOW + "Leader: " + ChatColor.WHITE +
-                getPlayerName(team.getLeader()));
-        infoLore.add("");
-        infoLore.add(ChatColor.AQUA + "Statistics:");
-        infoLore.add(ChatColor.WHITE + "  ⚔ Kills: " + ChatColor.GREEN + team.getTotalKills());
-        infoLore.add(ChatColor.WHITE + "  ☠ Deaths: " + ChatColor.RED + team.getTotalDeaths());
-        infoLore.add(ChatColor.WHITE + "  📊 K/D: " + ChatColor.GOLD +
-                String.format("%.2f", team.getKDRatio()));
-        infoLore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
-        infoMeta.setLore(infoLore);
-        info.setItemMeta(infoMeta);
-        inv.setItem(4, info);
-
-        // View members
-        ItemStack members = createItem(Material.PLAYER_HEAD,
-                ChatColor.GREEN + "View Members",
-                ChatColor.GRAY + "Click to see all team members",
-                ChatColor.YELLOW + "Total: " + team.getMemberCount());
-        inv.setItem(19, members);
-
-        // Invite player (moderators+)
-        if (isModerator && !team.isFull()) {
-            ItemStack invite = createItem(Material.WRITABLE_BOOK,
-                    ChatColor.AQUA + "Invite Player",
-                    ChatColor.GRAY + "Click to invite a player",
-                    ChatColor.YELLOW + "Type their name in chat");
-            inv.setItem(21, invite);
+        new ManageMenu(player, team).open();
+    }
+
+    public void openMembersMenu(Player player, Team team) {
+        new MembersMenu(player, team).open();
+    }
+
+    public void openSettingsMenu(Player player, Team team) {
+        if (!team.isLeader(player.getUniqueId())) {
+            player.sendMessage(ChatColor.RED + "Only the team leader can access settings!");
+            return;
         }
 
-        // Team chat
-        boolean chatEnabled = plugin.getChatManager().isTeamChatEnabled(player.getUniqueId());
-        ItemStack chat = createItem(Material.PAPER,
-                ChatColor.YELLOW + "Team Chat",
-                ChatColor.GRAY + "Toggle team chat mode",
-                "",
-                ChatColor.GRAY + "Status: " + (chatEnabled ?
-                        ChatColor.GREEN + "✔ Enabled" : ChatColor.RED + "✖ Disabled"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(23, chat);
-
-        // Team stash
-        ItemStack stash = createItem(Material.CHEST,
-                ChatColor.GOLD + "Team Stash",
-                ChatColor.GRAY + "Access team storage",
-                "",
-                ChatColor.WHITE + "Click to open");
-        inv.setItem(25, stash);
-
-        // Team settings (leader only)
-        if (isLeader) {
-            ItemStack settings = createItem(Material.COMPARATOR,
-                    ChatColor.LIGHT_PURPLE + "Team Settings",
-                    ChatColor.GRAY + "Configure team options",
-                    "",
-                    ChatColor.YELLOW + "Leader only");
-            inv.setItem(31, settings);
+        new SettingsMenu(player, team).open();
+    }
+
+    public void openAllyPermissionsMenu(Player player, Team team) {
+        if (!team.isLeader(player.getUniqueId())) {
+            player.sendMessage(ChatColor.RED + "Only the team leader can manage ally permissions!");
+            return;
         }
 
-        // Leave team
-        if (!isLeader) {
-            ItemStack leave = createItem(Material.RED_BED,
-                    ChatColor.RED + "Leave Team",
-                    ChatColor.GRAY + "Exit from this team",
-                    "",
-                    ChatColor.DARK_RED + "⚠ This action cannot be undone!");
-            inv.setItem(48, leave);
+        new AllyPermissionsMenu(player, team).open();
+    }
+
+    /**
+     * Main team management menu
+     */
+    private class ManageMenu extends Menu {
+        private final Team team;
+
+        ManageMenu(Player viewer, Team team) {
+            super(plugin.getMenuTracker(), viewer, 54, ChatColor.DARK_GREEN + "Manage: " + team.getColoredName());
+            this.team = team;
         }
 
-        // Disband team (leader only)
-        if (isLeader) {
-            ItemStack disband = createItem(Material.TNT,
-                    ChatColor.DARK_RED + "Disband Team",
-                    ChatColor.GRAY + "Permanently delete this team",
+        @Override
+        protected long getDataVersion() {
+            return team.getVersion();
+        }
+
+        @Override
+        protected void render() {
+            boolean isLeader = team.isLeader(viewer.getUniqueId());
+            boolean isModerator = team.isModerator(viewer.getUniqueId());
+
+            addBorderGlass(this);
+
+            // Team info
+            ItemStack info = new ItemStack(Material.BOOK);
+            ItemMeta infoMeta = info.getItemMeta();
+            infoMeta.setDisplayName(ChatColor.GOLD + "Team Information");
+            List<String> infoLore = new ArrayList<>();
+            infoLore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
+            infoLore.add(ChatColor.YELLOW + "Name: " + team.getColoredName());
+            infoLore.add(ChatColor.YELLOW + "Tag: " + team.getColoredTag());
+            infoLore.add(ChatColor.YELLOW + "Members: " + ChatColor.WHITE +
+                    team.getMemberCount() + "/" + team.getMaxMembers());
+            infoLore.add(ChatColor.YELLOW + "Leader: " + ChatColor.WHITE +
+                    getPlayerName(team.getLeader()));
+            infoLore.add("");
+            infoLore.add(ChatColor.AQUA + "Statistics:");
+            infoLore.add(ChatColor.WHITE + "  ⚔ Kills: " + ChatColor.GREEN + team.getTotalKills());
+            infoLore.add(ChatColor.WHITE + "  ☠ Deaths: " + ChatColor.RED + team.getTotalDeaths());
+            infoLore.add(ChatColor.WHITE + "  📊 K/D: " + ChatColor.GOLD +
+                    String.format("%.2f", team.getKDRatio()));
+            infoLore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
+            infoMeta.setLore(infoLore);
+            info.setItemMeta(infoMeta);
+            setItem(4, info);
+
+            // View members
+            ItemStack members = createItem(Material.PLAYER_HEAD,
+                    ChatColor.GREEN + "View Members",
+                    ChatColor.GRAY + "Click to see all team members",
+                    ChatColor.YELLOW + "Total: " + team.getMemberCount());
+            setItem(19, members, (p, click, item) -> withTeam(p, t -> openMembersMenu(p, t)));
+
+            // Invite player (moderators+)
+            if (isModerator && !team.isFull()) {
+                ItemStack invite = createItem(Material.WRITABLE_BOOK,
+                        ChatColor.AQUA + "Invite Player",
+                        ChatColor.GRAY + "Click to invite a player",
+                        ChatColor.YELLOW + "Type their name in chat");
+                setItem(21, invite, (p, click, item) -> withTeam(p, t -> {
+                    if (t.isModerator(p.getUniqueId())) {
+                        p.closeInventory();
+                        p.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team invite <player>" +
+                                ChatColor.YELLOW + " to invite someone!");
+                    }
+                }));
+            }
+
+            // Team chat
+            boolean chatEnabled = plugin.getChatManager().isTeamChatEnabled(viewer.getUniqueId());
+            ItemStack chat = createItem(Material.PAPER,
+                    ChatColor.YELLOW + "Team Chat",
+                    ChatColor.GRAY + "Toggle team chat mode",
                     "",
-                    ChatColor.DARK_RED + "⚠ WARNING: This cannot be undone!",
-                    ChatColor.RED + "All members will be removed!");
-            inv.setItem(49, disband);
+                    ChatColor.GRAY + "Status: " + (chatEnabled ?
+                            ChatColor.GREEN + "✔ Enabled" : ChatColor.RED + "✖ Disabled"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(23, chat, (p, click, item) -> withTeam(p, t -> {
+                // Toggle team chat
+                p.closeInventory();
+                plugin.getChatManager().toggleTeamChat(p);
+            }));
+
+            // Team stash
+            ItemStack stash = createItem(Material.CHEST,
+                    ChatColor.GOLD + "Team Stash",
+                    ChatColor.GRAY + "Access team storage",
+                    "",
+                    ChatColor.WHITE + "Click to open");
+            setItem(25, stash, (p, click, item) -> withTeam(p, t -> {
+                // Open team stash
+                p.closeInventory();
+                plugin.getStashManager().openStash(p);
+            }));
+
+            // Team settings (leader only)
+            if (isLeader) {
+                ItemStack settings = createItem(Material.COMPARATOR,
+                        ChatColor.LIGHT_PURPLE + "Team Settings",
+                        ChatColor.GRAY + "Configure team options",
+                        "",
+                        ChatColor.YELLOW + "Leader only");
+                setItem(31, settings, (p, click, item) -> withTeam(p, t -> {
+                    if (t.isLeader(p.getUniqueId())) {
+                        openSettingsMenu(p, t);
+                    }
+                }));
+            }
+
+            // Leave team
+            if (!isLeader) {
+                ItemStack leave = createItem(Material.RED_BED,
+                        ChatColor.RED + "Leave Team",
+                        ChatColor.GRAY + "Exit from this team",
+                        "",
+                        ChatColor.DARK_RED + "⚠ This action cannot be undone!");
+                setItem(48, leave, (p, click, item) -> withTeam(p, t -> {
+                    if (!t.isLeader(p.getUniqueId())) {
+                        p.closeInventory();
+                        Bukkit.dispatchCommand(p, "team leave");
+                    }
+                }));
+            }
+
+            // Disband team (leader only)
+            if (isLeader) {
+                ItemStack disband = createItem(Material.TNT,
+                        ChatColor.DARK_RED + "Disband Team",
+                        ChatColor.GRAY + "Permanently delete this team",
+                        "",
+                        ChatColor.DARK_RED + "⚠ WARNING: This cannot be undone!",
+                        ChatColor.RED + "All members will be removed!");
+                setItem(49, disband, (p, click, item) -> withTeam(p, t -> {
+                    if (t.isLeader(p.getUniqueId())) {
+                        p.closeInventory();
+                        Bukkit.dispatchCommand(p, "team disband");
+                    }
+                }));
+            }
+
+            // Close
+            ItemStack close = createItem(Material.BARRIER,
+                    ChatColor.RED + "Close",
+                    ChatColor.GRAY + "Close this menu");
+            setItem(45, close, (p, click, item) -> p.closeInventory());
+        }
+    }
+
+    /**
+     * Member heads with promote/demote/kick actions
+     */
+    private class MembersMenu extends Menu {
+        private final Team team;
+
+        MembersMenu(Player viewer, Team team) {
+            super(plugin.getMenuTracker(), viewer, 54, ChatColor.DARK_GREEN + "Team Members");
+            this.team = team;
+        }
+
+        @Override
+        protected long getDataVersion() {
+            // Heads show online status, which is not part of the team version
+            long online = 0;
+            for (UUID memberId : team.getMembers()) {
+                if (Bukkit.getPlayer(memberId) != null) {
+                    online = online * 31 + memberId.hashCode();
+                }
+            }
+            return ((long) team.getVersion() << 32) ^ online;
         }
 
-        // Close
-        ItemStack close = createItem(Material.BARRIER,
-                ChatColor.RED + "Close",
-                ChatColor.GRAY + "Close this menu");
-        inv.setItem(45, close);
+        @Override
+        protected void render() {
+            addBorderGlass(this);
+
+            boolean isLeader = team.isLeader(viewer.getUniqueId());
+            boolean isModerator = team.isModerator(viewer.getUniqueId());
+
+            List<UUID> members = new ArrayList<>(team.getMembers());
+            int slot = 10;
+
+            for (UUID memberId : members) {
+                if (slot >= 44) break;
+
+                ItemStack memberItem = createMemberItem(memberId, team, viewer, isLeader, isModerator);
+                setItem(slot, memberItem, TeamManageGUI.this::handleMemberClick);
+
+                slot++;
+                if (slot == 17) slot = 19;
+                if (slot == 26) slot = 28;
+                if (slot == 35) slot = 37;
+            }
 
-        player.openInventory(inv);
+            // Back button
+            ItemStack back = createItem(Material.ARROW,
+                    ChatColor.YELLOW + "Back",
+                    ChatColor.GRAY + "Return to team management");
+            setItem(45, back, (p, click, item) -> withTeam(p, t -> openTeamManageMenu(p)));
+        }
     }
 
-    public void openMembersMenu(Player player, Team team) {
-        Inventory inv = Bukkit.createInventory(null, 54,
-                ChatColor.DARK_GREEN + "Team Members");
+    /**
+     * Leader-only team settings
+     */
+    private class SettingsMenu extends Menu {
+        private final Team team;
 
-        addBorderGlass(inv);
+        SettingsMenu(Player viewer, Team team) {
+            super(plugin.getMenuTracker(), viewer, 54, ChatColor.DARK_GREEN + "Team Settings");
+            this.team = team;
+        }
 
-        boolean isLeader = team.isLeader(player.getUniqueId());
-        boolean isModerator = team.isModerator(player.getUniqueId());
+        @Override
+        protected long getDataVersion() {
+            return team.getVersion();
+        }
+
+        @Override
+        protected void render() {
+            addBorderGlass(this);
 
-        List<UUID> members = new ArrayList<>(team.getMembers());
-        int slot = 10;
+            // Friendly fire toggle
+            ItemStack ff = createItem(
+                    team.isFriendlyFire() ? Material.RED_CONCRETE : Material.GREEN_CONCRETE,
+                    ChatColor.YELLOW + "Friendly Fire",
+                    ChatColor.GRAY + "Current: " +
+                            (team.isFriendlyFire() ? ChatColor.RED + "Enabled" : ChatColor.GREEN + "Disabled"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(19, ff, (p, click, item) -> withLeaderTeam(p, t -> {
+                t.setFriendlyFire(!t.isFriendlyFire());
+                teamManager.saveTeams();
+                p.sendMessage(ChatColor.GREEN + "Friendly fire " +
+                        (t.isFriendlyFire() ? "enabled" : "disabled") + "!");
+            }));
+
+            // Change team color
+            ItemStack color = createItem(Material.INK_SAC,
+                    ChatColor.AQUA + "Team Color",
+                    ChatColor.GRAY + "Current: " + team.getColor() + team.getColor().name(),
+                    "",
+                    ChatColor.WHITE + "Click to change");
+            setItem(21, color, (p, click, item) -> withLeaderTeam(p, t -> {
+                p.closeInventory();
+                p.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team color <color>" +
+                        ChatColor.YELLOW + " to change team color!");
+                p.sendMessage(ChatColor.GRAY + "Available: red, blue, green, yellow, aqua, gold, white");
+            }));
+
+            // Change description
+            ItemStack desc = createItem(Material.WRITABLE_BOOK,
+                    ChatColor.LIGHT_PURPLE + "Team Description",
+                    ChatColor.GRAY + "Current:",
+                    ChatColor.WHITE + team.getDescription(),
+                    "",
+                    ChatColor.WHITE + "Click to change");
+            setItem(23, desc, (p, click, item) -> withLeaderTeam(p, t -> {
+                p.closeInventory();
+                p.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team description <text>" +
+                        ChatColor.YELLOW + " to change team description!");
+            }));
+
+            // Max members
+            ItemStack maxMembers = createItem(Material.PLAYER_HEAD,
+                    ChatColor.GOLD + "Maximum Members",
+                    ChatColor.GRAY + "Current: " + ChatColor.WHITE + team.getMaxMembers(),
+                    "",
+                    ChatColor.GREEN + "Left click: +1",
+                    ChatColor.RED + "Right click: -1");
+            setItem(25, maxMembers, (p, click, item) -> withLeaderTeam(p, t -> {
+                int current = t.getMaxMembers();
+                int newMax = current;
+
+                if (click == ClickType.LEFT) {
+                    newMax = Math.min(current + 1, 50);
+                } else if (click == ClickType.RIGHT) {
+                    newMax = Math.max(current - 1, t.getMemberCount());
+                }
+
+                if (newMax != current) {
+                    t.setMaxMembers(newMax);
+                    teamManager.saveTeams();
+                    p.sendMessage(ChatColor.GREEN + "Maximum members set to " + newMax);
+                }
+            }));
+
+            // Allow alliances toggle
+            ItemStack alliances = createItem(
+                    team.isAllowAlliances() ? Material.EMERALD : Material.BARRIER,
+                    ChatColor.LIGHT_PURPLE + "Allow Alliances",
+                    ChatColor.GRAY + "Current: " +
+                            (team.isAllowAlliances() ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"),
+                    "",
+                    ChatColor.GRAY + "When disabled, your team cannot",
+                    ChatColor.GRAY + "form new alliances",
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(28, alliances, (p, click, item) -> withLeaderTeam(p, t -> {
+                t.setAllowAlliances(!t.isAllowAlliances());
+                teamManager.saveTeams();
+                p.sendMessage(ChatColor.GREEN + "Alliances " +
+                        (t.isAllowAlliances() ? "enabled" : "disabled") + "!");
+            }));
+
+            // Ally permissions
+            ItemStack allyPerms = createItem(Material.WRITABLE_BOOK,
+                    ChatColor.LIGHT_PURPLE + "Ally Permissions",
+                    ChatColor.GRAY + "Configure what allies can do",
+                    ChatColor.GRAY + "in your team's claims",
+                    "",
+                    ChatColor.YELLOW + "Current allies: " + team.getAllies().size(),
+                    "",
+                    ChatColor.WHITE + "Click to configure");
+            setItem(30, allyPerms, (p, click, item) -> withLeaderTeam(p, t -> openAllyPermissionsMenu(p, t)));
+
+            // View allies
+            ItemStack viewAllies = createItem(Material.DIAMOND,
+                    ChatColor.AQUA + "View Allies",
+                    ChatColor.GRAY + "See all allied teams",
+                    "",
+                    ChatColor.YELLOW + "Total: " + team.getAllies().size(),
+                    "",
+                    ChatColor.WHITE + "Click to view");
+            setItem(32, viewAllies, (p, click, item) -> withLeaderTeam(p, t -> {
+                p.closeInventory();
+                Bukkit.dispatchCommand(p, "team allylist");
+            }));
+
+            // Transfer leadership
+            ItemStack transfer = createItem(Material.GOLDEN_HELMET,
+                    ChatColor.GOLD + "Transfer Leadership",
+                    ChatColor.GRAY + "Give leadership to another member",
+                    "",
+                    ChatColor.YELLOW + "⚠ Use with caution!");
+            setItem(40, transfer, (p, click, item) -> withLeaderTeam(p, t -> {
+                p.closeInventory();
+                p.sendMessage(ChatColor.YELLOW + "Use " + ChatColor.WHITE + "/team transfer <player>" +
+                        ChatColor.YELLOW + " to transfer leadership!");
+            }));
+
+            // Back button
+            ItemStack back = createItem(Material.ARROW,
+                    ChatColor.YELLOW + "Back",
+                    ChatColor.GRAY + "Return to team management");
+            setItem(45, back, (p, click, item) -> withLeaderTeam(p, t -> openTeamManageMenu(p)));
+        }
+    }
 
-        for (UUID memberId : members) {
-            if (slot >= 44) break;
+    /**
+     * Leader-only toggles for what allies may do
+     */
+    private class AllyPermissionsMenu extends Menu {
+        private final Team team;
 
-            ItemStack memberItem = createMemberItem(memberId, team, player, isLeader, isModerator);
-            inv.setItem(slot, memberItem);
+        AllyPermissionsMenu(Player viewer, Team team) {
+            super(plugin.getMenuTracker(), viewer, 54, ChatColor.DARK_PURPLE + "Ally Permissions");
+            this.team = team;
+        }
 
-            slot++;
-            if (slot == 17) slot = 19;
-            if (slot == 26) slot = 28;
-            if (slot == 35) slot = 37;
+        @Override
+        protected long getDataVersion() {
+            return team.getVersion();
         }
 
-        // Back button
-        ItemStack back = createItem(Material.ARROW,
-                ChatColor.YELLOW + "Back",
-                ChatColor.GRAY + "Return to team management");
-        inv.setItem(45, back);
+        @Override
+        protected void render() {
+            addBorderGlass(this);
+
+            Team.AllyPermissions perms = team.getAllyPermissions();
+
+            // Info item
+            ItemStack info = createItem(Material.BOOK,
+                    ChatColor.GOLD + "Ally Permissions",
+                    ChatColor.GRAY + "Configure what allied teams",
+                    ChatColor.GRAY + "can do in your claims",
+                    "",
+                    ChatColor.YELLOW + "⚠ These apply to ALL allies");
+            setItem(4, info);
+
+            // Break blocks
+            ItemStack breakBlocks = createItem(
+                    perms.canBreakBlocks() ? Material.DIAMOND_PICKAXE : Material.WOODEN_PICKAXE,
+                    ChatColor.YELLOW + "Break Blocks",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canBreakBlocks() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(19, breakBlocks, (p, click, item) -> togglePermission(p, ap -> ap.setCanBreakBlocks(!ap.canBreakBlocks())));
+
+            // Place blocks
+            ItemStack placeBlocks = createItem(
+                    perms.canPlaceBlocks() ? Material.GRASS_BLOCK : Material.BARRIER,
+                    ChatColor.YELLOW + "Place Blocks",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canPlaceBlocks() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(21, placeBlocks, (p, click, item) -> togglePermission(p, ap -> ap.setCanPlaceBlocks(!ap.canPlaceBlocks())));
+
+            // Use containers
+            ItemStack containers = createItem(
+                    perms.canUseContainers() ? Material.CHEST : Material.ENDER_CHEST,
+                    ChatColor.YELLOW + "Use Containers",
+                    ChatColor.GRAY + "Chests, furnaces, etc.",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canUseContainers() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(23, containers, (p, click, item) -> togglePermission(p, ap -> ap.setCanUseContainers(!ap.canUseContainers())));
+
+            // Use doors
+            ItemStack doors = createItem(
+                    perms.canUseDoors() ? Material.OAK_DOOR : Material.IRON_DOOR,
+                    ChatColor.YELLOW + "Use Doors & Gates",
+                    ChatColor.GRAY + "Doors, trapdoors, gates",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canUseDoors() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(25, doors, (p, click, item) -> togglePermission(p, ap -> ap.setCanUseDoors(!ap.canUseDoors())));
+
+            // Interact with entities
+            ItemStack entities = createItem(
+                    perms.canInteractEntities() ? Material.LEAD : Material.BARRIER,
+                    ChatColor.YELLOW + "Interact with Entities",
+                    ChatColor.GRAY + "Animals, villagers, etc.",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canInteractEntities() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(28, entities, (p, click, item) -> togglePermission(p, ap -> ap.setCanInteractEntities(!ap.canInteractEntities())));
+
+            // Use buckets
+            ItemStack buckets = createItem(
+                    perms.canUseBuckets() ? Material.WATER_BUCKET : Material.BUCKET,
+                    ChatColor.YELLOW + "Use Buckets",
+                    ChatColor.GRAY + "Water, lava buckets",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canUseBuckets() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(30, buckets, (p, click, item) -> togglePermission(p, ap -> ap.setCanUseBuckets(!ap.canUseBuckets())));
+
+            // Use buttons
+            ItemStack buttons = createItem(
+                    perms.canUseButtons() ? Material.STONE_BUTTON : Material.BARRIER,
+                    ChatColor.YELLOW + "Use Buttons & Levers",
+                    ChatColor.GRAY + "Redstone components",
+                    ChatColor.GRAY + "Status: " +
+                            (perms.canUseButtons() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
+                    "",
+                    ChatColor.WHITE + "Click to toggle");
+            setItem(32, buttons, (p, click, item) -> togglePermission(p, ap -> ap.setCanUseButtons(!ap.canUseButtons())));
+
+            // Preset buttons
+            ItemStack allowAll = createItem(Material.EMERALD_BLOCK,
+                    ChatColor.GREEN + "Allow All",
+                    ChatColor.GRAY + "Enable all permissions");
+            setItem(48, allowAll, (p, click, item) -> withLeaderTeam(p, t -> {
+                setAllPermissions(t.getAllyPermissions(), true);
+                t.markChanged();
+                teamManager.saveTeams();
+                p.sendMessage(ChatColor.GREEN + "Enabled all ally permissions!");
+            }));
+
+            ItemStack denyAll = createItem(Material.REDSTONE_BLOCK,
+                    ChatColor.RED + "Deny All",
+                    ChatColor.GRAY + "Disable all permissions");
+            setItem(50, denyAll, (p, click, item) -> withLeaderTeam(p, t -> {
+                setAllPermissions(t.getAllyPermissions(), false);
+                t.markChanged();
+                teamManager.saveTeams();
+                p.sendMessage(ChatColor.RED + "Disabled all ally permissions!");
+            }));
+
+            // Back button
+            ItemStack back = createItem(Material.ARROW,
+                    ChatColor.YELLOW + "Back",
+                    ChatColor.GRAY + "Return to team settings");
+            setItem(45, back, (p, click, item) -> withLeaderTeam(p, t -> openSettingsMenu(p, t)));
+        }
+    }
 
-        player.openInventory(inv);
+    /**
+     * Run a menu action against the clicking player's current team (menus can outlive membership)
+     */
+    private void withTeam(Player player, Consumer<Team> action) {
+        Team team = teamManager.getPlayerTeam(player.getUniqueId());
+        if (team != null) {
+            action.accept(team);
+        }
     }
 
-    public void openSettingsMenu(Player player, Team team) {
-        if (!team.isLeader(player.getUniqueId())) {
-            player.sendMessage(ChatColor.RED + "Only the team leader can access settings!");
-            return;
+    /**
+     * Like withTeam, but only if the player still leads the team
+     */
+    private void withLeaderTeam(Player player, Consumer<Team> action) {
+        Team team = teamManager.getPlayerTeam(player.getUniqueId());
+        if (team != null && team.isLeader(player.getUniqueId())) {
+            action.accept(team);
         }
+    }
 
-        Inventory inv = Bukkit.createInventory(null, 54,
-                ChatColor.DARK_GREEN + "Team Settings");
-
-        addBorderGlass(inv);
-
-        // Friendly fire toggle
-        ItemStack ff = createItem(
-                team.isFriendlyFire() ? Material.RED_CONCRETE : Material.GREEN_CONCRETE,
-                ChatColor.YELLOW + "Friendly Fire",
-                ChatColor.GRAY + "Current: " +
-                        (team.isFriendlyFire() ? ChatColor.RED + "Enabled" : ChatColor.GREEN + "Disabled"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(19, ff);
-
-        // Change team color
-        ItemStack color = createItem(Material.INK_SAC,
-                ChatColor.AQUA + "Team Color",
-                ChatColor.GRAY + "Current: " + team.getColor() + team.getColor().name(),
-                "",
-                ChatColor.WHITE + "Click to change");
-        inv.setItem(21, color);
-
-        // Change description
-        ItemStack desc = createItem(Material.WRITABLE_BOOK,
-                ChatColor.LIGHT_PURPLE + "Team Description",
-                ChatColor.GRAY + "Current:",
-                ChatColor.WHITE + team.getDescription(),
-                "",
-                ChatColor.WHITE + "Click to change");
-        inv.setItem(23, desc);
-
-        // Max members
-        ItemStack maxMembers = createItem(Material.PLAYER_HEAD,
-                ChatColor.GOLD + "Maximum Members",
-                ChatColor.GRAY + "Current: " + ChatColor.WHITE + team.getMaxMembers(),
-                "",
-                ChatColor.GREEN + "Left click: +1",
-                ChatColor.RED + "Right click: -1");
-        inv.setItem(25, maxMembers);
-
-        // Allow alliances toggle
-        ItemStack alliances = createItem(
-                team.isAllowAlliances() ? Material.EMERALD : Material.BARRIER,
-                ChatColor.LIGHT_PURPLE + "Allow Alliances",
-                ChatColor.GRAY + "Current: " +
-                        (team.isAllowAlliances() ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"),
-                "",
-                ChatColor.GRAY + "When disabled, your team cannot",
-                ChatColor.GRAY + "form new alliances",
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(28, alliances);
-
-        // Ally permissions
-        ItemStack allyPerms = createItem(Material.WRITABLE_BOOK,
-                ChatColor.LIGHT_PURPLE + "Ally Permissions",
-                ChatColor.GRAY + "Configure what allies can do",
-                ChatColor.GRAY + "in your team's claims",
-                "",
-                ChatColor.YELLOW + "Current allies: " + team.getAllies().size(),
-                "",
-                ChatColor.WHITE + "Click to configure");
-        inv.setItem(30, allyPerms);
-
-        // View allies
-        ItemStack viewAllies = createItem(Material.DIAMOND,
-                ChatColor.AQUA + "View Allies",
-                ChatColor.GRAY + "See all allied teams",
-                "",
-                ChatColor.YELLOW + "Total: " + team.getAllies().size(),
-                "",
-                ChatColor.WHITE + "Click to view");
-        inv.setItem(32, viewAllies);
-
-        // Transfer leadership
-        ItemStack transfer = createItem(Material.GOLDEN_HELMET,
-                ChatColor.GOLD + "Transfer Leadership",
-                ChatColor.GRAY + "Give leadership to another member",
-                "",
-                ChatColor.YELLOW + "⚠ Use with caution!");
-        inv.setItem(40, transfer);
-
-        // Back button
-        ItemStack back = createItem(Material.ARROW,
-                ChatColor.YELLOW + "Back",
-                ChatColor.GRAY + "Return to team management");
-        inv.setItem(45, back);
-
-        player.openInventory(inv);
+    private void togglePermission(Player player, Consumer<Team.AllyPermissions> toggle) {
+        withLeaderTeam(player, team -> {
+            toggle.accept(team.getAllyPermissions());
+            team.markChanged();
+            teamManager.saveTeams();
+        });
     }
 
+    private void setAllPermissions(Team.AllyPermissions perms, boolean allowed) {
+        perms.setCanBreakBlocks(allowed);
+        perms.setCanPlaceBlocks(allowed);
+        perms.setCanUseContainers(allowed);
+        perms.setCanUseDoors(allowed);
+        perms.setCanInteractEntities(allowed);
+        perms.setCanUseBuckets(allowed);
+        perms.setCanUseButtons(allowed);
+    }
 
-    public void openAllyPermissionsMenu(Player player, Team team) {
-        if (!team.isLeader(player.getUniqueId())) {
-            player.sendMessage(ChatColor.RED + "Only the team leader can manage ally permissions!");
+    private void handleMemberClick(Player player, ClickType clickType, ItemStack clicked) {
+        Team team = teamManager.getPlayerTeam(player.getUniqueId());
+        if (team == null) return;
+
+        // The head carries the member's UUID, so offline members can be managed too
+        UUID targetId = tags.getPlayerId(clicked);
+        if (targetId == null || !team.isMember(targetId)) {
+            player.sendMessage(ChatColor.RED + "That player is not in your team!");
+            return;
+        }
+
+        if (targetId.equals(player.getUniqueId())) {
+            return; // Can't manage yourself
+        }
+
+        boolean isLeader = team.isLeader(player.getUniqueId());
+        boolean isMod = team.isModerator(player.getUniqueId());
+        boolean targetIsMod = team.isModerator(targetId);
+        boolean targetIsLeader = team.isLeader(targetId);
+
+        // Shift-click to kick
+        if (clickType == ClickType.SHIFT_LEFT || clickType == ClickType.SHIFT_RIGHT) {
+            if ((isMod && !targetIsMod && !targetIsLeader) || (isLeader && !targetIsLeader)) {
+                player.closeInventory();
+                teamManager.kickMember(player, team, targetId);
+            }
             return;
         }
 
-        Inventory inv = Bukkit.createInventory(null, 54,
-                ChatColor.DARK_PURPLE + "Ally Permissions");
-
-        addBorderGlass(inv);
-
-        Team.AllyPermissions perms = team.getAllyPermissions();
-
-        // Info item
-        ItemStack info = createItem(Material.BOOK,
-                ChatColor.GOLD + "Ally Permissions",
-                ChatColor.GRAY + "Configure what allied teams",
-                ChatColor.GRAY + "can do in your claims",
-                "",
-                ChatColor.YELLOW + "⚠ These apply to ALL allies");
-        inv.setItem(4, info);
-
-        // Break blocks
-        ItemStack breakBlocks = createItem(
-                perms.canBreakBlocks() ? Material.DIAMOND_PICKAXE : Material.WOODEN_PICKAXE,
-                ChatColor.YELLOW + "Break Blocks",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canBreakBlocks() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(19, breakBlocks);
-
-        // Place blocks
-        ItemStack placeBlocks = createItem(
-                perms.canPlaceBlocks() ? Material.GRASS_BLOCK : Material.BARRIER,
-                ChatColor.YELLOW + "Place Blocks",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canPlaceBlocks() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(21, placeBlocks);
-
-        // Use containers
-        ItemStack containers = createItem(
-                perms.canUseContainers() ? Material.CHEST : Material.ENDER_CHEST,
-                ChatColor.YELLOW + "Use Containers",
-                ChatColor.GRAY + "Chests, furnaces, etc.",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canUseContainers() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(23, containers);
-
-        // Use doors
-        ItemStack doors = createItem(
-                perms.canUseDoors() ? Material.OAK_DOOR : Material.IRON_DOOR,
-                ChatColor.YELLOW + "Use Doors & Gates",
-                ChatColor.GRAY + "Doors, trapdoors, gates",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canUseDoors() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(25, doors);
-
-        // Interact with entities
-        ItemStack entities = createItem(
-                perms.canInteractEntities() ? Material.LEAD : Material.BARRIER,
-                ChatColor.YELLOW + "Interact with Entities",
-                ChatColor.GRAY + "Animals, villagers, etc.",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canInteractEntities() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(28, entities);
-
-        // Use buckets
-        ItemStack buckets = createItem(
-                perms.canUseBuckets() ? Material.WATER_BUCKET : Material.BUCKET,
-                ChatColor.YELLOW + "Use Buckets",
-                ChatColor.GRAY + "Water, lava buckets",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canUseBuckets() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(30, buckets);
-
-        // Use buttons
-        ItemStack buttons = createItem(
-                perms.canUseButtons() ? Material.STONE_BUTTON : Material.BARRIER,
-                ChatColor.YELLOW + "Use Buttons & Levers",
-                ChatColor.GRAY + "Redstone components",
-                ChatColor.GRAY + "Status: " +
-                        (perms.canUseButtons() ? ChatColor.GREEN + "✓ Allowed" : ChatColor.RED + "✗ Denied"),
-                "",
-                ChatColor.WHITE + "Click to toggle");
-        inv.setItem(32, buttons);
-
-        // Preset buttons
-        ItemStack allowAll = createItem(Material.EMERALD_BLOCK,
-                ChatColor.GREEN + "Allow All",
-                ChatColor.GRAY + "Enable all permissions");
-        inv.setItem(48, allowAll);
-
-        ItemStack denyAll = createItem(Material.REDSTONE_BLOCK,
-                ChatColor.RED + "Deny All",
-                ChatColor.GRAY + "Disable all permissions");
-        inv.setItem(50, denyAll);
-
-        // Back button
-        ItemStack back = createItem(Material.ARROW,
-                ChatColor.YELLOW + "Back",
-                ChatColor.GRAY + "Return to team settings");
-        inv.setItem(45, back);
-
-        player.openInventory(inv);
+        // Regular click to promote/demote (leader only)
+        if (isLeader && !targetIsLeader) {
+            if (targetIsMod) {
+                teamManager.demoteMember(player, team, targetId);
+            } else {
+                teamManager.promoteMember(player, team, targetId);
+            }
+            // The open members menu picks up the new rank on the next refresh
+        }
     }
 
     private ItemStack createMemberItem(UUID memberId, Team team, Player viewer,
@@ -394,12 +635,14 @@ public class TeamManageGUI {
         SkullMeta meta = (SkullMeta) item.getItemMeta();
 
         Player member = Bukkit.getPlayer(memberId);
-        String memberName = member != null ? member.getName() :
-                Bukkit.getOfflinePlayer(memberId).getName();
-        if (memberName == null) memberName = "Unknown";
-
-        if (member != null) {
-            meta.setOwningPlayer(member);
+        String memberName = getPlayerName(memberId);
+
+        // Skins come from the profile cache; until a lookup finishes the head stays the default one
+        ProfileCache.CachedProfile profile = plugin.getProfileCache().get(memberId);
+        if (profile != null && profile.hasTextures()) {
+            PlayerProfile skin = Bukkit.createProfile(memberId, profile.getName());
+            skin.setProperty(new ProfileProperty("textures", profile.getTextures(), profile.getSignature()));
+            meta.setPlayerProfile(skin);
         }
 
         boolean isLeader = team.isLeader(memberId);
@@ -408,6 +651,7 @@ public class TeamManageGUI {
         ChatColor nameColor = isLeader ? ChatColor.GOLD :
                 isMod ? ChatColor.AQUA : ChatColor.WHITE;
         meta.setDisplayName(nameColor + memberName);
+        tags.tagPlayer(meta, memberId);
 
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "━━━━━━━━━━━━━━━━━━━");
@@ -448,25 +692,22 @@ public class TeamManageGUI {
         return item;
     }
 
-    private void addBorderGlass(Inventory inv) {
-        ItemStack glass = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
-        ItemMeta meta = glass.getItemMeta();
-        meta.setDisplayName(" ");
-        glass.setItemMeta(meta);
+    private void addBorderGlass(Menu menu) {
+        ItemStack glass = borderGlass;
 
         for (int i = 0; i < 9; i++) {
-            inv.setItem(i, glass);
-            inv.setItem(i + 45, glass);
+            menu.setItem(i, glass);
+            menu.setItem(i + 45, glass);
         }
 
-        inv.setItem(9, glass);
-        inv.setItem(18, glass);
-        inv.setItem(27, glass);
-        inv.setItem(36, glass);
-        inv.setItem(17, glass);
-        inv.setItem(26, glass);
-        inv.setItem(35, glass);
-        inv.setItem(44, glass);
+        menu.setItem(9, glass);
+        menu.setItem(18, glass);
+        menu.setItem(27, glass);
+        menu.setItem(36, glass);
+        menu.setItem(17, glass);
+        menu.setItem(26, glass);
+        menu.setItem(35, glass);
+        menu.setItem(44, glass);
     }
 
     private ItemStack createItem(Material material, String name, String... lore) {
@@ -487,12 +728,6 @@ public class TeamManageGUI {
     }
 
     private String getPlayerName(UUID uuid) {
-        Player player = Bukkit.getPlayer(uuid);
-        if (player != null) {
-            return player.getName();
-        }
-
-        String name = Bukkit.getOfflinePlayer(uuid).getName();
-        return name != null ? name : "Unknown";
+        return plugin.getProfileCache().getDisplayName(uuid);
     }
 }
@@ -2,11 +2,14 @@ package com.mcbzh.teams.listeners;
 
 import com.mcbzh.teams.TeamsPlugin;
 import com.mcbzh.teams.models.Team;
+import io.papermc.paper.chat.ChatRenderer;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.player.AsyncPlayerChatEvent;
 
 public class ChatListener implements Listener {
     private final TeamsPlugin plugin;
@@ -16,30 +19,51 @@ public class ChatListener implements Listener {
     }
 
     @EventHandler(priority = EventPriority.HIGH)
-    public void onPlayerChat(AsyncPlayerChatEvent event) {
+    public void onPlayerChat(AsyncChatEvent event) {
         Player player = event.getPlayer();
-        Team team = plugin.getTeamManager().getPlayerTeam(player.getUniqueId());
 
         // Check if player has team chat enabled
         if (plugin.getChatManager().isTeamChatEnabled(player.getUniqueId())) {
             event.setCancelled(true);
 
-            // Send via team chat manager
-            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                plugin.getChatManager().sendTeamMessage(player, event.getMessage());
-            });
+            // Deliver directly from the chat thread (the chat manager only hops to the
+            // main thread when it has no recipient snapshot for this player yet)
+            plugin.getChatManager().sendTeamMessage(player, event.message());
             return;
         }
 
+        // Same for ally chat mode
+        if (plugin.getChatManager().isAllyChatEnabled(player.getUniqueId())) {
+            event.setCancelled(true);
+            plugin.getChatManager().sendAllyMessage(player, event.message());
+            return;
+        }
+
+        // Read from the thread-safe snapshot - team maps are only safe on the main thread
+        Team team = plugin.getChatManager().getOnlineTeam(player.getUniqueId());
+
         // Normal chat with team prefix
         if (team != null) {
-            // Format: [TAG] PlayerName: message
-            String teamPrefix = team.getColoredTag() + " ";
-            String format = event.getFormat();
+            // Format: [TAG] PlayerName: message - wraps whatever renderer is already installed
+            event.renderer(new TeamPrefixRenderer(event.renderer(), team.getChatPrefix(plugin.getSettings().teams.coloredNames)));
+        }
+    }
+
+    /**
+     * Puts the team's cached prefix component in front of the sender's name
+     */
+    private static final class TeamPrefixRenderer implements ChatRenderer {
+        private final ChatRenderer delegate;
+        private final Component prefix;
+
+        private TeamPrefixRenderer(ChatRenderer delegate, Component prefix) {
+            this.delegate = delegate;
+            this.prefix = prefix;
+        }
 
-            // Replace %1$s (player name) with team prefix + player name
-            String newFormat = format.replace("%1$s", teamPrefix + "%1$s");
-            event.setFormat(newFormat);
+        @Override
+        public Component render(Player source, Component sourceDisplayName, Component message, Audience viewer) {
+            return delegate.render(source, prefix.append(sourceDisplayName), message, viewer);
         }
     }
-}
\ No newline at end of file
+}
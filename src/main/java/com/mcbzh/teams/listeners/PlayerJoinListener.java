@@ -4,8 +4,10 @@ import com.mcbzh.teams.TeamsPlugin;
 import com.mcbzh.teams.models.Team;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 public class PlayerJoinListener implements Listener {
 
@@ -18,13 +20,22 @@ public class PlayerJoinListener implements Listener {
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
+        plugin.getTeamManager().openSession(player.getUniqueId());
+        plugin.getProfileCache().remember(player);
         Team team = plugin.getTeamManager().getPlayerTeam(player.getUniqueId());
 
         if (team != null) {
             // Re-add player to scoreboard team (in case they logged off)
             plugin.getTeamManager().addPlayerToTeam(player.getUniqueId(), team);
         }
-        
+
+        // Make the player reachable from async team chat
+        plugin.getChatManager().refreshPlayer(player.getUniqueId());
+        plugin.getChatManager().replayHistory(player);
+
+        // Member lists show who is online
+        plugin.getTeamManager().requestMenuRefresh();
+
         // Update nametag after a short delay to ensure player is fully loaded
         plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
             if (plugin.getNametagManager() != null) {
@@ -32,4 +43,11 @@ public class PlayerJoinListener implements Listener {
             }
         }, 10L);
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getChatManager().removeOnlinePlayer(event.getPlayer().getUniqueId());
+        plugin.getTeamManager().closeSession(event.getPlayer().getUniqueId());
+        plugin.getTeamManager().requestMenuRefresh();
+    }
 }
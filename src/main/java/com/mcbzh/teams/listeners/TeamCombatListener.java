@@ -1,9 +1,12 @@
 package com.mcbzh.teams.listeners;
 
 import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.config.PluginSettings;
 import com.mcbzh.teams.managers.TeamManager;
+import com.mcbzh.teams.models.PlayerSession;
 import com.mcbzh.teams.models.Team;
 import org.bukkit.ChatColor;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
@@ -13,8 +16,13 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 public class TeamCombatListener implements Listener {
+    // At most one "cannot hurt your teammate" message per attacker per second
+    private static final long FRIENDLY_FIRE_MESSAGE_COOLDOWN = 1000L;
+
     private final TeamsPlugin plugin;
     private final TeamManager teamManager;
 
@@ -35,10 +43,25 @@ public class TeamCombatListener implements Listener {
         }, 10L);
     }
 
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        plugin.getWorldPolicyManager().addWorld(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getWorldPolicyManager().removeWorld(event.getWorld());
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getStatisticsManager().getPlayerStats().clearRecentDamage(event.getPlayer().getUniqueId());
+
         // Clean up player's scoreboard entry
-        // This happens automatically, but we can do cleanup if needed
+        // Shared scoreboard entries clean up automatically; relational pools must be told
+        if (plugin.getNametagManager() != null) {
+            plugin.getNametagManager().removePlayer(event.getPlayer());
+        }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -49,71 +72,106 @@ public class TeamCombatListener implements Listener {
         }
 
         Player victim = (Player) event.getEntity();
-        Player attacker = null;
+        Player attacker = getAttacker(event.getDamager());
 
-        // Direct attack
-        if (event.getDamager() instanceof Player) {
-            attacker = (Player) event.getDamager();
-        }
-        // Projectile attack
-        else if (event.getDamager() instanceof Projectile) {
-            Projectile projectile = (Projectile) event.getDamager();
-            if (projectile.getShooter() instanceof Player) {
-                attacker = (Player) projectile.getShooter();
-            }
+        if (attacker == null) {
+            return;
         }
 
-        if (attacker == null) {
+        // Teammates share a team slot; the sessions cache it so no team maps are touched here
+        PlayerSession attackerSession = teamManager.getSession(attacker.getUniqueId());
+        PlayerSession victimSession = teamManager.getSession(victim.getUniqueId());
+        if (attackerSession == null || victimSession == null) {
             return;
         }
 
-        // Check if they're teammates
-        if (teamManager.areTeammates(attacker.getUniqueId(), victim.getUniqueId())) {
-            Team team = teamManager.getPlayerTeam(attacker.getUniqueId());
+        int attackerSlot = attackerSession.getTeamSlot();
+        int victimSlot = victimSession.getTeamSlot();
+        if (attackerSlot == PlayerSession.NO_TEAM || victimSlot == PlayerSession.NO_TEAM) {
+            return;
+        }
 
-            if (team != null && !team.isFriendlyFire()) {
-                // Cancel the damage
-                event.setCancelled(true);
+        // Per-world policy, resolved from world names ahead of time (identity lookup only)
+        PluginSettings.WorldPolicy worldPolicy = plugin.getWorldPolicyManager().getPolicy(victim.getWorld());
+        PluginSettings.FriendlyFireSettings settings = plugin.getSettings().friendlyFire;
 
-                // Optional: notify attacker
-                if (plugin.getConfig().getBoolean("friendly-fire.show-message", true)) {
-                    attacker.sendMessage(ChatColor.RED + "You cannot hurt your teammate!");
-                }
+        if (attackerSlot == victimSlot) {
+            if (isBlocked(worldPolicy.teamDamage, attackerSlot, victimSlot)) {
+                blockHit(event, attacker, attackerSession, settings, "You cannot hurt your teammate!");
             }
+            return;
+        }
+
+        // Allied teams - a bit lookup in the slot matrix, only when the policy can block anything
+        if (worldPolicy.allyDamage != PluginSettings.DamagePolicy.ALLOW
+                && teamManager.areSlotsAllied(attackerSlot, victimSlot)
+                && isBlocked(worldPolicy.allyDamage, attackerSlot, victimSlot)) {
+            blockHit(event, attacker, attackerSession, settings, "You cannot hurt your ally!");
         }
     }
 
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onPlayerDeath(PlayerDeathEvent event) {
-        if (!plugin.getConfig().getBoolean("statistics.enabled", true)) {
-            return;
+    private boolean isBlocked(PluginSettings.DamagePolicy policy, int attackerSlot, int victimSlot) {
+        switch (policy) {
+            case ALLOW:
+                return false;
+            case PROTECT:
+                return true;
+            default:
+                // FOLLOW_TEAMS: the team (both teams, for allies) must have opted into friendly fire
+                Team attackerTeam = teamManager.getTeamBySlot(attackerSlot);
+                Team victimTeam = teamManager.getTeamBySlot(victimSlot);
+                return attackerTeam == null || victimTeam == null
+                        || !attackerTeam.isFriendlyFire() || !victimTeam.isFriendlyFire();
         }
+    }
 
-        Player victim = event.getEntity();
-        Player killer = victim.getKiller();
+    private void blockHit(EntityDamageByEntityEvent event, Player attacker, PlayerSession attackerSession,
+                          PluginSettings.FriendlyFireSettings settings, String message) {
+        // Cancel the damage
+        event.setCancelled(true);
 
-        // Track death for victim's team
-        Team victimTeam = teamManager.getPlayerTeam(victim.getUniqueId());
-        if (victimTeam != null) {
-            victimTeam.addDeath();
+        // Optional: notify attacker, throttled so spam-clicking doesn't flood chat
+        if (settings.showMessage
+                && attackerSession.tryFriendlyFireMessage(System.currentTimeMillis(), FRIENDLY_FIRE_MESSAGE_COOLDOWN)) {
+            attacker.sendMessage(ChatColor.RED + message);
         }
+    }
 
-        // Track kill for killer's team (if PvP)
-        if (killer != null) {
-            Team killerTeam = teamManager.getPlayerTeam(killer.getUniqueId());
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerDamageMonitor(EntityDamageByEntityEvent event) {
+        if (!(event.getEntity() instanceof Player)) {
+            return;
+        }
 
-            // Only count if not same team or friendly fire is enabled
-            if (killerTeam != null &&
-                    (victimTeam == null || !killerTeam.equals(victimTeam) || killerTeam.isFriendlyFire())) {
+        Player attacker = getAttacker(event.getDamager());
+        if (attacker != null && attacker != event.getEntity()) {
+            plugin.getStatisticsManager().recordDamage(attacker, (Player) event.getEntity(), event.getFinalDamage());
+        }
+    }
 
-                // Only count PvP kills if configured
-                if (!plugin.getConfig().getBoolean("statistics.pvp-only", true) || victim != null) {
-                    killerTeam.addKill();
-                }
+    /**
+     * The player behind a hit: the damager itself or the shooter of a projectile
+     */
+    private Player getAttacker(Entity damager) {
+        // Direct attack
+        if (damager instanceof Player) {
+            return (Player) damager;
+        }
+        // Projectile attack
+        if (damager instanceof Projectile) {
+            Projectile projectile = (Projectile) damager;
+            if (projectile.getShooter() instanceof Player) {
+                return (Player) projectile.getShooter();
             }
         }
+        return null;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        Player victim = event.getEntity();
 
-        // Save changes
-        teamManager.saveTeams();
+        // Applied in memory and saved in batches by the statistics manager
+        plugin.getStatisticsManager().recordDeath(victim, victim.getKiller());
     }
 }
@@ -0,0 +1,218 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.config.PluginSettings;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Recent team chat lines, kept in a fixed-size ring buffer per team.
+ *
+ * Buffers are only allocated for teams that actually chat. At most chat.history.max-teams
+ * buffers exist at once (least recently used is dropped first) and buffers idle for longer
+ * than chat.history.idle-minutes are released, so memory is bounded by
+ * max-teams * lines-per-team lines no matter how many teams exist.
+ */
+public class ChatHistoryManager {
+    private static final int PAGE_SIZE = 10;
+
+    private final TeamsPlugin plugin;
+    private final boolean enabled;
+    private final int linesPerTeam;
+    private final int maxTeams;
+    private final long idleMillis;
+    private final int replayOnJoin;
+
+    // Team ID -> history, in access order (guarded by this)
+    private final LinkedHashMap<UUID, TeamHistory> histories;
+    private BukkitTask evictionTask;
+
+    public ChatHistoryManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        PluginSettings.ChatSettings settings = plugin.getSettings().chat;
+        this.enabled = settings.historyEnabled;
+        this.linesPerTeam = settings.historyLinesPerTeam;
+        this.maxTeams = settings.historyMaxTeams;
+        this.idleMillis = settings.historyIdleMillis;
+        this.replayOnJoin = settings.historyReplayOnJoin;
+
+        this.histories = new LinkedHashMap<UUID, TeamHistory>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, TeamHistory> eldest) {
+                return size() > maxTeams;
+            }
+        };
+
+        if (enabled) {
+            // Release idle buffers once a minute
+            evictionTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                    this::evictIdle, 1200L, 1200L);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a team chat line. Safe to call from the async chat thread.
+     */
+    public synchronized void record(UUID teamId, String senderName, Component message) {
+        if (!enabled) {
+            return;
+        }
+
+        TeamHistory history = histories.get(teamId);
+        if (history == null) {
+            history = new TeamHistory(linesPerTeam);
+            histories.put(teamId, history);
+        }
+        history.add(System.currentTimeMillis(), senderName, message);
+    }
+
+    /**
+     * Show one page of a team's history, newest page first (page numbers start at 1)
+     */
+    public void sendHistory(Player player, UUID teamId, int page) {
+        // Lines are copied under the lock and sent after it, so a slow send never stalls chat
+        Component header;
+        Component[] lines;
+        synchronized (this) {
+            TeamHistory history = histories.get(teamId);
+            if (history == null || history.size == 0) {
+                header = null;
+                lines = null;
+            } else {
+                int totalPages = (history.size + PAGE_SIZE - 1) / PAGE_SIZE;
+                page = Math.max(1, Math.min(page, totalPages));
+
+                int newest = (page - 1) * PAGE_SIZE;
+                int count = Math.min(PAGE_SIZE, history.size - newest);
+
+                header = Component.text("Team chat history (page " + page + "/" + totalPages + ")", NamedTextColor.GOLD);
+                lines = formatLines(history, newest, count);
+            }
+        }
+
+        if (lines == null) {
+            player.sendMessage(Component.text("No recent team chat messages.", NamedTextColor.YELLOW));
+            return;
+        }
+        player.sendMessage(header);
+        sendAll(player, lines);
+    }
+
+    /**
+     * Replay the last few lines to a player who just joined
+     */
+    public void replay(Player player, UUID teamId) {
+        if (replayOnJoin == 0) {
+            return;
+        }
+
+        Component[] lines;
+        synchronized (this) {
+            TeamHistory history = histories.get(teamId);
+            if (history == null || history.size == 0) {
+                return;
+            }
+            lines = formatLines(history, 0, Math.min(replayOnJoin, history.size));
+        }
+
+        player.sendMessage(Component.text("Recent team chat:", NamedTextColor.GOLD));
+        sendAll(player, lines);
+    }
+
+    // Formats `count` lines starting `newest` lines back from the latest, oldest first (caller holds the lock)
+    private Component[] formatLines(TeamHistory history, int newest, int count) {
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm");
+        Component[] lines = new Component[count];
+
+        for (int i = 0; i < count; i++) {
+            int index = history.indexFromNewest(newest + count - 1 - i);
+            lines[i] = Component.text()
+                    .append(Component.text("[" + format.format(new Date(history.timestamps[index])) + "] ", NamedTextColor.DARK_GRAY))
+                    .append(Component.text(history.senders[index], NamedTextColor.WHITE))
+                    .append(Component.text(": ", NamedTextColor.GRAY))
+                    .append(history.messages[index].colorIfAbsent(NamedTextColor.WHITE))
+                    .build();
+        }
+        return lines;
+    }
+
+    private static void sendAll(Player player, Component[] lines) {
+        for (Component line : lines) {
+            player.sendMessage(line);
+        }
+    }
+
+    /**
+     * Drop a team's history (team disbanded)
+     */
+    public synchronized void removeTeam(UUID teamId) {
+        histories.remove(teamId);
+    }
+
+    private synchronized void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        Iterator<TeamHistory> iterator = histories.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().lastActivity < cutoff) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized int getBufferCount() {
+        return histories.size();
+    }
+
+    public void shutdown() {
+        if (evictionTask != null) {
+            evictionTask.cancel();
+            evictionTask = null;
+        }
+        synchronized (this) {
+            histories.clear();
+        }
+    }
+
+    private static final class TeamHistory {
+        private final long[] timestamps;
+        private final String[] senders;
+        private final Component[] messages;
+        private int head;
+        private int size;
+        private long lastActivity;
+
+        private TeamHistory(int capacity) {
+            this.timestamps = new long[capacity];
+            this.senders = new String[capacity];
+            this.messages = new Component[capacity];
+        }
+
+        private void add(long time, String sender, Component message) {
+            timestamps[head] = time;
+            senders[head] = sender;
+            messages[head] = message;
+            head = (head + 1) % timestamps.length;
+            if (size < timestamps.length) {
+                size++;
+            }
+            lastActivity = time;
+        }
+
+        private int indexFromNewest(int offset) {
+            return (head - 1 - offset + timestamps.length * 2) % timestamps.length;
+        }
+    }
+}
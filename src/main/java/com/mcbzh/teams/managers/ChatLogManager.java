@@ -0,0 +1,202 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes team and ally chat to plugins/TeamsPlugin/chatlogs/chat-YYYY-MM-DD.log.
+ *
+ * Chat threads only enqueue onto a lock-free queue; a background task drains the queue in
+ * batches, rolls over to a new file each day and gzips the previous day's file.
+ */
+public class ChatLogManager {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final TeamsPlugin plugin;
+    private final boolean fileEnabled;
+    private final boolean consoleEnabled;
+    private final File logFolder;
+    private final ZoneId zone;
+
+    private final Queue<Entry> queue;
+    private BukkitTask writerTask;
+
+    // Writer state (guarded by this, only touched by the writer task and shutdown)
+    private BufferedWriter writer;
+    private LocalDate currentDay;
+
+    public ChatLogManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        this.fileEnabled = plugin.getSettings().chat.logToFile;
+        this.consoleEnabled = plugin.getSettings().chat.logToConsole;
+        this.logFolder = new File(plugin.getDataFolder(), "chatlogs");
+        this.zone = ZoneId.systemDefault();
+        this.queue = new ConcurrentLinkedQueue<>();
+
+        if (fileEnabled) {
+            long interval = plugin.getSettings().chat.logFlushIntervalTicks;
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::compressOldLogs);
+            writerTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+        }
+    }
+
+    /**
+     * Log one chat line. Safe to call from any thread.
+     */
+    public void log(String channel, String teamName, String senderName, String message) {
+        if (consoleEnabled) {
+            plugin.getLogger().info("[" + channel + "] " + teamName + " | " + senderName + ": " + message);
+        }
+        if (fileEnabled) {
+            queue.offer(new Entry(System.currentTimeMillis(), channel, teamName, senderName, message));
+        }
+    }
+
+    /**
+     * Write everything queued so far
+     */
+    private synchronized void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        try {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                Instant instant = Instant.ofEpochMilli(entry.time);
+                LocalDate day = instant.atZone(zone).toLocalDate();
+                if (!day.equals(currentDay)) {
+                    rollOver(day);
+                }
+
+                writer.write("[" + TIME_FORMAT.format(instant.atZone(zone)) + "] [" + entry.channel + "] " +
+                        entry.teamName + " | " + entry.senderName + ": " + entry.message);
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write chat log: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void rollOver(LocalDate day) throws IOException {
+        LocalDate previousDay = currentDay;
+        closeWriter();
+
+        if (!logFolder.exists() && !logFolder.mkdirs()) {
+            throw new IOException("Could not create " + logFolder.getPath());
+        }
+
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(fileFor(day), true), StandardCharsets.UTF_8));
+        currentDay = day;
+
+        if (previousDay != null) {
+            compress(fileFor(previousDay));
+        }
+    }
+
+    /**
+     * Gzip any plain log left over from earlier days (e.g. after a crash or restart)
+     */
+    private synchronized void compressOldLogs() {
+        File[] files = logFolder.listFiles((dir, name) -> name.startsWith("chat-") && name.endsWith(".log"));
+        if (files == null) {
+            return;
+        }
+
+        String today = fileFor(LocalDate.now(zone)).getName();
+        for (File file : files) {
+            if (!file.getName().equals(today)) {
+                compress(file);
+            }
+        }
+    }
+
+    private void compress(File file) {
+        if (!file.exists()) {
+            return;
+        }
+
+        File target = new File(file.getParentFile(), file.getName() + ".gz");
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(target, true))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not compress chat log " + file.getName() + ": " + e.getMessage());
+            return;
+        }
+
+        if (!file.delete()) {
+            plugin.getLogger().warning("Could not delete compressed chat log " + file.getName());
+        }
+    }
+
+    private File fileFor(LocalDate day) {
+        return new File(logFolder, "chat-" + day + ".log");
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+            currentDay = null;
+        }
+    }
+
+    /**
+     * Stop the writer task and write out anything still queued
+     */
+    public void shutdown() {
+        if (writerTask != null) {
+            writerTask.cancel();
+            writerTask = null;
+        }
+
+        synchronized (this) {
+            flush();
+            closeWriter();
+        }
+    }
+
+    private static final class Entry {
+        private final long time;
+        private final String channel;
+        private final String teamName;
+        private final String senderName;
+        private final String message;
+
+        private Entry(long time, String channel, String teamName, String senderName, String message) {
+            this.time = time;
+            this.channel = channel;
+            this.teamName = teamName;
+            this.senderName = senderName;
+            this.message = message;
+        }
+    }
+}
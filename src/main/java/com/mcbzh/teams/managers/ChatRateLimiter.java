@@ -0,0 +1,197 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.util.TokenBucket;
+import com.mcbzh.teams.config.PluginSettings;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-player and per-team token-bucket limits for team and ally chat.
+ *
+ * Checks run on the async chat thread: bucket lookups are plain concurrent map reads and each
+ * bucket is a single CAS, so an accepted or dropped message takes no lock and allocates nothing.
+ */
+public class ChatRateLimiter {
+
+    public enum Channel {
+        TEAM,
+        ALLY
+    }
+
+    public enum Result {
+        ALLOWED,
+        PLAYER_LIMITED,
+        TEAM_LIMITED
+    }
+
+    // Minimum time between "slow down" notices to the same player
+    private static final long WARNING_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final TeamsPlugin plugin;
+    private volatile boolean enabled;
+    private volatile Limits[] limits;
+
+    // Buckets per channel (indexed by Channel.ordinal())
+    private final Map<UUID, PlayerBucket>[] playerBuckets;
+    private final Map<UUID, TokenBucket>[] teamBuckets;
+
+    // Dropped message counters per channel
+    private final LongAdder[] droppedByPlayerLimit;
+    private final LongAdder[] droppedByTeamLimit;
+
+    @SuppressWarnings("unchecked")
+    public ChatRateLimiter(TeamsPlugin plugin) {
+        this.plugin = plugin;
+
+        int channels = Channel.values().length;
+        this.playerBuckets = new Map[channels];
+        this.teamBuckets = new Map[channels];
+        this.droppedByPlayerLimit = new LongAdder[channels];
+        this.droppedByTeamLimit = new LongAdder[channels];
+
+        for (int i = 0; i < channels; i++) {
+            playerBuckets[i] = new ConcurrentHashMap<>();
+            teamBuckets[i] = new ConcurrentHashMap<>();
+            droppedByPlayerLimit[i] = new LongAdder();
+            droppedByTeamLimit[i] = new LongAdder();
+        }
+
+        reload();
+    }
+
+    /**
+     * Re-read limits from the current settings. Existing buckets keep their state.
+     */
+    public void reload() {
+        PluginSettings.ChatSettings settings = plugin.getSettings().chat;
+        this.enabled = settings.rateLimitEnabled;
+
+        Limits[] newLimits = new Limits[Channel.values().length];
+        newLimits[Channel.TEAM.ordinal()] = new Limits(settings.teamChatLimit);
+        newLimits[Channel.ALLY.ordinal()] = new Limits(settings.allyChatLimit);
+        this.limits = newLimits;
+    }
+
+    /**
+     * Try to send one message on a channel
+     */
+    public Result tryAcquire(Channel channel, UUID playerId, UUID teamId) {
+        if (!enabled) {
+            return Result.ALLOWED;
+        }
+
+        int index = channel.ordinal();
+        Limits limit = limits[index];
+        long now = System.nanoTime();
+
+        PlayerBucket playerBucket = getPlayerBucket(index, playerId);
+        if (!playerBucket.tryAcquire(now, limit.playerInterval, limit.playerTolerance)) {
+            droppedByPlayerLimit[index].increment();
+            return Result.PLAYER_LIMITED;
+        }
+
+        TokenBucket teamBucket = teamBuckets[index].get(teamId);
+        if (teamBucket == null) {
+            teamBucket = teamBuckets[index].computeIfAbsent(teamId, id -> new TokenBucket());
+        }
+
+        if (!teamBucket.tryAcquire(now, limit.teamInterval, limit.teamTolerance)) {
+            // The message is not sent, so it must not count against the player's own limit
+            playerBucket.refund(limit.playerInterval);
+            droppedByTeamLimit[index].increment();
+            return Result.TEAM_LIMITED;
+        }
+
+        return Result.ALLOWED;
+    }
+
+    /**
+     * Whether a throttled player should be told to slow down (at most once per second)
+     */
+    public boolean shouldWarn(Channel channel, UUID playerId) {
+        PlayerBucket bucket = getPlayerBucket(channel.ordinal(), playerId);
+        long now = System.nanoTime();
+        long last = bucket.lastWarning;
+
+        if (last != 0 && now - last < WARNING_INTERVAL_NANOS) {
+            return false;
+        }
+
+        bucket.lastWarning = now;
+        return true;
+    }
+
+    private PlayerBucket getPlayerBucket(int index, UUID playerId) {
+        PlayerBucket bucket = playerBuckets[index].get(playerId);
+        if (bucket == null) {
+            bucket = playerBuckets[index].computeIfAbsent(playerId, id -> new PlayerBucket());
+        }
+        return bucket;
+    }
+
+    /**
+     * Drop a player's buckets (on quit)
+     */
+    public void removePlayer(UUID playerId) {
+        for (Map<UUID, PlayerBucket> buckets : playerBuckets) {
+            buckets.remove(playerId);
+        }
+    }
+
+    /**
+     * Drop a team's buckets (no online members left or team deleted)
+     */
+    public void removeTeam(UUID teamId) {
+        for (Map<UUID, TokenBucket> buckets : teamBuckets) {
+            buckets.remove(teamId);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getDroppedByPlayerLimit(Channel channel) {
+        return droppedByPlayerLimit[channel.ordinal()].sum();
+    }
+
+    public long getDroppedByTeamLimit(Channel channel) {
+        return droppedByTeamLimit[channel.ordinal()].sum();
+    }
+
+    public void resetCounters() {
+        for (int i = 0; i < droppedByPlayerLimit.length; i++) {
+            droppedByPlayerLimit[i].reset();
+            droppedByTeamLimit[i].reset();
+        }
+    }
+
+    private static final class PlayerBucket extends TokenBucket {
+        private volatile long lastWarning;
+    }
+
+    /**
+     * Limits for one channel, precomputed as GCRA interval / tolerance in nanoseconds
+     */
+    private static final class Limits {
+        private final long playerInterval;
+        private final long playerTolerance;
+        private final long teamInterval;
+        private final long teamTolerance;
+
+        private Limits(PluginSettings.RateLimit limit) {
+            this.playerInterval = intervalOf(limit.playerPerSecond);
+            this.playerTolerance = playerInterval * (limit.playerBurst - 1);
+            this.teamInterval = intervalOf(limit.teamPerSecond);
+            this.teamTolerance = teamInterval * (limit.teamBurst - 1);
+        }
+
+        private static long intervalOf(double perSecond) {
+            return (long) (1_000_000_000L / perSecond);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.Team;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Append-only binary log of PvP deaths in plugins/TeamsPlugin/combatlogs/.
+ *
+ * Each file starts with an 8-byte header (magic, record size) followed by fixed 128-byte
+ * records. Records are encoded on the main thread and queued; an async task appends them in
+ * batches and starts a new file once combat-log.max-file-mb is reached. The reader streams
+ * every file off the main thread, so it works the same on a live server or a copied folder.
+ *
+ * Record layout (big-endian):
+ *   0  long   timestamp (epoch millis)
+ *   8  long*2 killer UUID (0/0 if none)
+ *  24  long*2 victim UUID
+ *  40  long*2 killer team UUID (0/0 if none)
+ *  56  long*2 victim team UUID (0/0 if none)
+ *  72  long*2 world UUID
+ *  88  byte   flags (bit 0: kill counted for the killer's team)
+ *  89  7 bytes reserved
+ *  96  32 bytes weapon material name (ASCII, zero padded)
+ */
+public class CombatLogManager {
+    public static final int RECORD_SIZE = 128;
+    private static final int FILE_MAGIC = 0x54434C31; // "TCL1"
+    private static final int HEADER_SIZE = 8;
+    private static final int WEAPON_OFFSET = 96;
+    private static final int WEAPON_LENGTH = 32;
+    private static final byte FLAG_KILL_COUNTED = 1;
+    // Files are named combat-<yyyyMMdd-HHmmss>[-<n>].bin; n counts files opened in the same second
+    private static final String FILE_PREFIX = "combat-";
+    private static final int TIMESTAMP_LENGTH = 15;
+
+    private final TeamsPlugin plugin;
+    private final boolean enabled;
+    private final File logFolder;
+    private final long maxFileBytes;
+    private final Queue<byte[]> queue;
+    private BukkitTask writerTask;
+
+    // Writer state (guarded by this)
+    private FileChannel channel;
+    private long channelSize;
+
+    public CombatLogManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getSettings().combatLog.enabled;
+        this.logFolder = new File(plugin.getDataFolder(), "combatlogs");
+        this.maxFileBytes = plugin.getSettings().combatLog.maxFileBytes;
+        this.queue = new ConcurrentLinkedQueue<>();
+
+        if (enabled) {
+            long interval = plugin.getSettings().combatLog.flushIntervalTicks;
+            writerTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a death record (main thread)
+     */
+    public void logDeath(Player victim, Player killer, Team victimTeam, Team killerTeam, boolean killCounted) {
+        if (!enabled) {
+            return;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(System.currentTimeMillis());
+        putUuid(record, killer != null ? killer.getUniqueId() : null);
+        putUuid(record, victim.getUniqueId());
+        putUuid(record, killerTeam != null ? killerTeam.getId() : null);
+        putUuid(record, victimTeam != null ? victimTeam.getId() : null);
+        putUuid(record, victim.getWorld().getUID());
+        record.put(killCounted ? FLAG_KILL_COUNTED : 0);
+
+        if (killer != null) {
+            ItemStack weapon = killer.getInventory().getItemInMainHand();
+            byte[] name = weapon.getType().name().getBytes(StandardCharsets.US_ASCII);
+            record.position(WEAPON_OFFSET);
+            record.put(name, 0, Math.min(name.length, WEAPON_LENGTH));
+        }
+
+        queue.offer(record.array());
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id != null ? id.getMostSignificantBits() : 0L);
+        buffer.putLong(id != null ? id.getLeastSignificantBits() : 0L);
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    /**
+     * Append everything queued so far in one write
+     */
+    private synchronized void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        try {
+            while (!queue.isEmpty()) {
+                if (channel == null || channelSize >= maxFileBytes) {
+                    openNewFile();
+                }
+
+                // Batch as many records as fit in the current file
+                int capacity = (int) Math.min(256, Math.max(1, (maxFileBytes - channelSize) / RECORD_SIZE));
+                ByteBuffer batch = ByteBuffer.allocate(capacity * RECORD_SIZE);
+                byte[] record;
+                while (batch.hasRemaining() && (record = queue.poll()) != null) {
+                    batch.put(record);
+                }
+
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channelSize += channel.write(batch);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write combat log: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private void openNewFile() throws IOException {
+        closeChannel();
+
+        if (!logFolder.exists() && !logFolder.mkdirs()) {
+            throw new IOException("Could not create " + logFolder.getPath());
+        }
+
+        String name = FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(logFolder, name + ".bin");
+        for (int i = 1; file.exists(); i++) {
+            file = new File(logFolder, name + "-" + i + ".bin");
+        }
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(FILE_MAGIC);
+        header.putInt(RECORD_SIZE);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channelSize = HEADER_SIZE;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    public void shutdown() {
+        if (writerTask != null) {
+            writerTask.cancel();
+            writerTask = null;
+        }
+
+        synchronized (this) {
+            flush();
+            closeChannel();
+        }
+    }
+
+    /**
+     * Stream every record in the log folder, oldest file first
+     */
+    private void readAll(RecordVisitor visitor) throws IOException {
+        File[] files = logFolder.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(".bin"));
+        if (files == null) {
+            return;
+        }
+        // By name the suffixed file of a second ("...-1.bin") would sort before the first one
+        Arrays.sort(files, Comparator.comparing((File file) -> fileTimestamp(file.getName()))
+                .thenComparingInt(file -> fileIndex(file.getName())));
+
+        byte[] bytes = new byte[RECORD_SIZE];
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FILE_MAGIC || in.readInt() != RECORD_SIZE) {
+                    plugin.getLogger().warning("Skipping combat log with unknown format: " + file.getName());
+                    continue;
+                }
+
+                while (true) {
+                    try {
+                        in.readFully(bytes);
+                    } catch (EOFException e) {
+                        break; // End of file (or a torn final record)
+                    }
+                    record.clear();
+                    visitor.visit(record);
+                }
+            }
+        }
+    }
+
+    private static String fileTimestamp(String name) {
+        int end = FILE_PREFIX.length() + TIMESTAMP_LENGTH;
+        return name.length() >= end ? name.substring(FILE_PREFIX.length(), end) : name;
+    }
+
+    private static int fileIndex(String name) {
+        int start = FILE_PREFIX.length() + TIMESTAMP_LENGTH + 1; // Skip the '-' before the index
+        int end = name.length() - ".bin".length();
+        if (start >= end) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(name.substring(start, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Send per-day kill/death counts for the last `days` days (read off the main thread)
+     */
+    public void sendDailySummary(CommandSender sender, int days) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate firstDay = LocalDate.now(zone).minusDays(Math.max(1, days) - 1L);
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<LocalDate, long[]> perDay = new TreeMap<>();
+            try {
+                flush();
+                readAll(record -> {
+                    LocalDate day = Instant.ofEpochMilli(record.getLong()).atZone(zone).toLocalDate();
+                    if (day.isBefore(firstDay)) {
+                        return;
+                    }
+                    UUID killer = getUuid(record);
+                    long[] counts = perDay.computeIfAbsent(day, d -> new long[2]);
+                    counts[0]++;
+                    if (killer != null) {
+                        counts[1]++;
+                    }
+                });
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not read combat log: " + e.getMessage());
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (perDay.isEmpty()) {
+                    sender.sendMessage(ChatColor.YELLOW + "No combat events recorded in the last " + days + " days");
+                    return;
+                }
+                sender.sendMessage(ChatColor.GOLD + "Combat log summary (deaths / PvP kills):");
+                for (Map.Entry<LocalDate, long[]> entry : perDay.entrySet()) {
+                    sender.sendMessage(ChatColor.YELLOW + entry.getKey().toString() + ChatColor.GRAY + ": " +
+                            ChatColor.WHITE + entry.getValue()[0] + ChatColor.GRAY + " / " +
+                            ChatColor.WHITE + entry.getValue()[1]);
+                }
+            });
+        });
+    }
+
+    /**
+     * Recompute team kill/death totals from the log (read off the main thread, applied on the
+     * main thread). Only teams that appear in the log and were created after its first record
+     * are rebuilt; the log cannot account for anything older, so other teams keep their totals.
+     */
+    public void rebuildTeamStats(CommandSender sender) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<UUID, int[]> totals = new HashMap<>();
+            long[] records = new long[1];
+            long[] firstRecord = {Long.MAX_VALUE};
+            try {
+                flush();
+                readAll(record -> {
+                    records[0]++;
+                    firstRecord[0] = Math.min(firstRecord[0], record.getLong());
+                    record.position(40);
+                    UUID killerTeam = getUuid(record);
+                    UUID victimTeam = getUuid(record);
+                    record.position(88);
+                    boolean killCounted = (record.get() & FLAG_KILL_COUNTED) != 0;
+
+                    if (victimTeam != null) {
+                        totals.computeIfAbsent(victimTeam, id -> new int[2])[1]++;
+                    }
+                    if (killerTeam != null && killCounted) {
+                        totals.computeIfAbsent(killerTeam, id -> new int[2])[0]++;
+                    }
+                });
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not read combat log: " + e.getMessage());
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage(ChatColor.RED + "Could not read combat log: " + e.getMessage()));
+                return;
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                TeamManager teamManager = plugin.getTeamManager();
+                int rebuilt = 0;
+                int tooOld = 0;
+                for (Team team : teamManager.getAllTeams()) {
+                    int[] counts = totals.get(team.getId());
+                    if (counts == null) {
+                        continue;
+                    }
+                    if (team.getCreatedAt() < firstRecord[0]) {
+                        tooOld++;
+                        continue;
+                    }
+                    team.setTotalKills(counts[0]);
+                    team.setTotalDeaths(counts[1]);
+                    rebuilt++;
+                }
+                if (rebuilt > 0) {
+                    teamManager.saveTeams();
+                }
+
+                sender.sendMessage(ChatColor.GREEN + "Rebuilt " + rebuilt + " teams from " + records[0] + " combat events");
+                if (tooOld > 0) {
+                    sender.sendMessage(ChatColor.YELLOW + "Skipped " + tooOld +
+                            " teams created before the first logged event; their totals were kept");
+                }
+            });
+        });
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(ByteBuffer record);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * In-memory debug event recorder driven by the debug.enabled / debug.log-events settings.
+ *
+ * Events go to a fixed-size ring buffer instead of the console and can be dumped with
+ * /teamadmin debug. Callers must guard with isEnabled() / isLoggingEvents() before building
+ * the message, so nothing is allocated while debugging is off:
+ *
+ *     if (debug.isEnabled()) debug.record("Updated nametag for " + player.getName());
+ */
+public class DebugManager {
+    private final TeamsPlugin plugin;
+    private volatile boolean enabled;
+    private volatile boolean logEvents;
+
+    // Ring buffer (guarded by this)
+    private long[] timestamps;
+    private String[] messages;
+    private int head;
+    private int size;
+
+    public DebugManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Re-read the debug settings from config
+     */
+    public synchronized void reload() {
+        apply(plugin.getSettings().debug.enabled);
+    }
+
+    private void apply(boolean enabled) {
+        this.enabled = enabled;
+        this.logEvents = enabled && plugin.getSettings().debug.logEvents;
+
+        int capacity = plugin.getSettings().debug.bufferSize;
+        if (timestamps == null || timestamps.length != capacity) {
+            // Buffers are only allocated while debugging is on
+            timestamps = enabled ? new long[capacity] : null;
+            messages = enabled ? new String[capacity] : null;
+            head = 0;
+            size = 0;
+        }
+    }
+
+    /**
+     * Whether nametag / scoreboard debug events should be recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether team lifecycle events (create, join, leave, disband) should be recorded
+     */
+    public boolean isLoggingEvents() {
+        return logEvents;
+    }
+
+    /**
+     * Turn recording on or off until the next reload
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        apply(enabled);
+    }
+
+    /**
+     * Record an event. Callers should check isEnabled() first.
+     */
+    public synchronized void record(String message) {
+        if (!enabled || timestamps == null) {
+            return;
+        }
+
+        timestamps[head] = System.currentTimeMillis();
+        messages[head] = message;
+        head = (head + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Send the most recent events (oldest first) to a command sender
+     */
+    public synchronized void dump(CommandSender sender, int limit) {
+        if (size == 0) {
+            sender.sendMessage(ChatColor.YELLOW + "No debug events recorded" +
+                    (enabled ? "" : " (debug is disabled)"));
+            return;
+        }
+
+        int count = Math.min(limit, size);
+        int start = (head - count + timestamps.length) % timestamps.length;
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+
+        sender.sendMessage(ChatColor.GOLD + "Last " + count + " of " + size + " debug events:");
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % timestamps.length;
+            sender.sendMessage(ChatColor.GRAY + format.format(new Date(timestamps[index])) + " " +
+                    ChatColor.WHITE + messages[index]);
+        }
+    }
+
+    public synchronized void clear() {
+        if (messages != null) {
+            Arrays.fill(messages, null);
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+}
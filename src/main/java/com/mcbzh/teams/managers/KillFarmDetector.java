@@ -0,0 +1,197 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.config.PluginSettings;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Detects kill farming: the same killer killing the same victim over and over.
+ *
+ * Each killer/victim pair gets a slot in a fixed-size open-addressed table, found by hashing both
+ * UUIDs and probing a few neighbours. A slot holds the pair's last max-kills kill times in a small
+ * ring, so "max-kills kills within the window already" is one comparison against the oldest entry.
+ * Kills past that limit are discounted. When the probe range is full, the least recently active
+ * pair is replaced, so memory stays bounded and a kill allocates nothing. Main thread only.
+ */
+public class KillFarmDetector {
+    private static final int PROBE_LIMIT = 8;
+
+    private final boolean enabled;
+    private final int maxKills;
+    private final long windowMillis;
+    private final int mask;
+
+    // Pair identity (UUIDs stored as longs so the table holds no object references)
+    private final long[] killerMost;
+    private final long[] killerLeast;
+    private final long[] victimMost;
+    private final long[] victimLeast;
+
+    // Ring of the last maxKills kill times per slot (stride maxKills), with its write cursor
+    private final long[] killTimes;
+    private final int[] cursor;
+
+    // 0 = empty slot
+    private final long[] lastKill;
+    private final int[] discounted;
+
+    private long totalDiscounted;
+
+    public KillFarmDetector(TeamsPlugin plugin) {
+        PluginSettings.StatisticsSettings settings = plugin.getSettings().statistics;
+        this.enabled = settings.antiFarmingEnabled;
+        this.maxKills = settings.antiFarmingMaxKills;
+        this.windowMillis = settings.antiFarmingWindowMillis;
+
+        int capacity = Integer.highestOneBit(Math.max(PROBE_LIMIT, settings.antiFarmingTrackedPairs) - 1) << 1;
+        this.mask = capacity - 1;
+        this.killerMost = new long[capacity];
+        this.killerLeast = new long[capacity];
+        this.victimMost = new long[capacity];
+        this.victimLeast = new long[capacity];
+        this.killTimes = new long[capacity * maxKills];
+        this.cursor = new int[capacity];
+        this.lastKill = new long[capacity];
+        this.discounted = new int[capacity];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a kill and decide whether it counts towards statistics
+     *
+     * @return false if the killer already killed this victim max-kills times within the window
+     */
+    public boolean recordKill(UUID killer, UUID victim, long now) {
+        if (!enabled) {
+            return true;
+        }
+
+        int slot = findSlot(killer, victim, now);
+        int base = slot * maxKills;
+        int position = cursor[slot];
+
+        // The ring holds the last maxKills kills; if the oldest is still inside the window, this one is over the limit
+        boolean counted = killTimes[base + position] <= now - windowMillis;
+
+        killTimes[base + position] = now;
+        cursor[slot] = position + 1 == maxKills ? 0 : position + 1;
+        lastKill[slot] = now;
+
+        if (!counted) {
+            discounted[slot]++;
+            totalDiscounted++;
+        }
+        return counted;
+    }
+
+    private int findSlot(UUID killer, UUID victim, long now) {
+        long kMost = killer.getMostSignificantBits();
+        long kLeast = killer.getLeastSignificantBits();
+        long vMost = victim.getMostSignificantBits();
+        long vLeast = victim.getLeastSignificantBits();
+
+        int start = hash(kMost, kLeast, vMost, vLeast);
+        int victimSlot = -1;
+        long oldest = Long.MAX_VALUE;
+        long expiredBefore = now - windowMillis;
+
+        for (int i = 0; i < PROBE_LIMIT; i++) {
+            int slot = (start + i) & mask;
+
+            if (lastKill[slot] != 0 && killerMost[slot] == kMost && killerLeast[slot] == kLeast
+                    && victimMost[slot] == vMost && victimLeast[slot] == vLeast) {
+                return slot;
+            }
+
+            // Prefer an empty slot, then an expired one, then the least recently active
+            long age = lastKill[slot] == 0 ? Long.MIN_VALUE : (lastKill[slot] < expiredBefore ? 0 : lastKill[slot]);
+            if (age < oldest) {
+                oldest = age;
+                victimSlot = slot;
+            }
+        }
+
+        // Claim the slot for this pair
+        killerMost[victimSlot] = kMost;
+        killerLeast[victimSlot] = kLeast;
+        victimMost[victimSlot] = vMost;
+        victimLeast[victimSlot] = vLeast;
+        cursor[victimSlot] = 0;
+        discounted[victimSlot] = 0;
+        lastKill[victimSlot] = now;
+        int base = victimSlot * maxKills;
+        for (int i = 0; i < maxKills; i++) {
+            killTimes[base + i] = 0;
+        }
+        return victimSlot;
+    }
+
+    private int hash(long kMost, long kLeast, long vMost, long vLeast) {
+        long h = kMost * 31 + kLeast;
+        h = h * 31 + vMost;
+        h = h * 31 + vLeast;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Pairs with discounted kills whose last kill is still inside the window, most discounted first
+     */
+    public List<FlaggedPair> getFlaggedPairs(int limit) {
+        long since = System.currentTimeMillis() - windowMillis;
+        List<FlaggedPair> flagged = new ArrayList<>();
+
+        for (int slot = 0; slot <= mask; slot++) {
+            if (discounted[slot] > 0 && lastKill[slot] >= since) {
+                flagged.add(new FlaggedPair(
+                        new UUID(killerMost[slot], killerLeast[slot]),
+                        new UUID(victimMost[slot], victimLeast[slot]),
+                        discounted[slot], lastKill[slot]));
+            }
+        }
+
+        flagged.sort(Comparator.comparingInt(FlaggedPair::getDiscountedKills).reversed());
+        return flagged.size() > limit ? new ArrayList<>(flagged.subList(0, limit)) : flagged;
+    }
+
+    public long getTotalDiscounted() {
+        return totalDiscounted;
+    }
+
+    public int getMaxKills() {
+        return maxKills;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Snapshot of a suspicious killer/victim pair for admin output
+     */
+    public static final class FlaggedPair {
+        private final UUID killer;
+        private final UUID victim;
+        private final int discountedKills;
+        private final long lastKill;
+
+        private FlaggedPair(UUID killer, UUID victim, int discountedKills, long lastKill) {
+            this.killer = killer;
+            this.victim = victim;
+            this.discountedKills = discountedKills;
+            this.lastKill = lastKill;
+        }
+
+        public UUID getKiller() { return killer; }
+        public UUID getVictim() { return victim; }
+        public int getDiscountedKills() { return discountedKills; }
+        public long getLastKill() { return lastKill; }
+    }
+}
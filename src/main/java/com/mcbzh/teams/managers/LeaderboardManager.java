@@ -0,0 +1,254 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.Team;
+import com.mcbzh.teams.models.TeamStatsWindow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Daily, weekly and season team leaderboards backed by per-team TeamStatsWindow rings.
+ * Windows are persisted to team_leaderboards.dat on the statistics flush timer.
+ */
+public class LeaderboardManager {
+
+    public enum Period {
+        DAY("Today"),
+        WEEK("This Week"),
+        SEASON("This Season"),
+        ALL("All Time");
+
+        private final String displayName;
+
+        Period(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public static Period fromName(String name) {
+            for (Period period : values()) {
+                if (period.name().equalsIgnoreCase(name)) {
+                    return period;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int FILE_MAGIC = 0x544C4231; // "TLB1"
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private final TeamsPlugin plugin;
+    private final TeamManager teamManager;
+    private final File windowsFile;
+    private final long seasonLengthMillis;
+    private final Object fileLock = new Object();
+    // Snapshot numbers: an async write that lost the race to a newer one is skipped
+    private long saveSequence;
+    private long writtenSequence; // Guarded by fileLock
+
+    private final Map<UUID, TeamStatsWindow> windows;
+    private long seasonStart;
+    private boolean dirty;
+
+    public LeaderboardManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        this.teamManager = plugin.getTeamManager();
+        this.windowsFile = new File(plugin.getDataFolder(), "team_leaderboards.dat");
+        this.seasonLengthMillis = plugin.getSettings().statistics.seasonLengthMillis;
+        this.windows = new HashMap<>();
+        this.seasonStart = System.currentTimeMillis();
+
+        load();
+    }
+
+    public void recordKill(Team team) {
+        record(team, TeamStatsWindow.KILLS);
+    }
+
+    public void recordDeath(Team team) {
+        record(team, TeamStatsWindow.DEATHS);
+    }
+
+    private void record(Team team, int stat) {
+        checkSeason();
+        windows.computeIfAbsent(team.getId(), id -> new TeamStatsWindow()).add(stat, currentHour());
+        dirty = true;
+    }
+
+    public int getKills(Team team, Period period) {
+        return get(team, TeamStatsWindow.KILLS, period);
+    }
+
+    public int getDeaths(Team team, Period period) {
+        return get(team, TeamStatsWindow.DEATHS, period);
+    }
+
+    public double getKDRatio(Team team, Period period) {
+        int kills = getKills(team, period);
+        int deaths = getDeaths(team, period);
+        return deaths == 0 ? kills : (double) kills / deaths;
+    }
+
+    private int get(Team team, int stat, Period period) {
+        if (period == Period.ALL) {
+            return stat == TeamStatsWindow.KILLS ? team.getTotalKills() : team.getTotalDeaths();
+        }
+
+        TeamStatsWindow window = windows.get(team.getId());
+        if (window == null) {
+            return 0;
+        }
+
+        window.advance(currentHour());
+        switch (period) {
+            case DAY:
+                return window.getDay(stat);
+            case WEEK:
+                return window.getWeek(stat);
+            default:
+                return window.getSeason(stat);
+        }
+    }
+
+    public List<Team> getTopTeamsByKills(Period period, int limit) {
+        checkSeason();
+        return teamManager.getAllTeams().stream()
+                .filter(team -> period == Period.ALL || windows.containsKey(team.getId()))
+                .sorted(Comparator.comparingInt((Team team) -> getKills(team, period)).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public List<Team> getTopTeamsByKD(Period period, int limit) {
+        checkSeason();
+        return teamManager.getAllTeams().stream()
+                .filter(team -> period == Period.ALL || windows.containsKey(team.getId()))
+                .sorted(Comparator.comparingDouble((Team team) -> getKDRatio(team, period)).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Start a new season now (also happens automatically after statistics.season-length-days)
+     */
+    public void resetSeason() {
+        for (TeamStatsWindow window : windows.values()) {
+            window.resetSeason();
+        }
+        seasonStart = System.currentTimeMillis();
+        dirty = true;
+    }
+
+    public long getSeasonStart() {
+        return seasonStart;
+    }
+
+    private void checkSeason() {
+        if (seasonLengthMillis > 0 && System.currentTimeMillis() - seasonStart >= seasonLengthMillis) {
+            resetSeason();
+            plugin.getLogger().info("Started a new leaderboard season");
+        }
+    }
+
+    private long currentHour() {
+        return System.currentTimeMillis() / MILLIS_PER_HOUR;
+    }
+
+    /**
+     * Write windows to disk if anything changed. Serialized on the calling (main) thread,
+     * written to disk off-thread unless async is false.
+     */
+    public void save(boolean async) {
+        if (!dirty) {
+            return;
+        }
+
+        // Drop windows of disbanded teams
+        windows.keySet().removeIf(teamId -> teamManager.getTeam(teamId) == null);
+
+        byte[] data;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + windows.size() * 1400);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(seasonStart);
+            out.writeInt(windows.size());
+            for (Map.Entry<UUID, TeamStatsWindow> entry : windows.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                entry.getValue().write(out);
+            }
+            data = bytes.toByteArray();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not serialize leaderboards: " + e.getMessage());
+            return;
+        }
+        long sequence = ++saveSequence;
+        dirty = false;
+
+        if (async) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> write(data, sequence));
+        } else {
+            write(data, sequence);
+        }
+    }
+
+    private void write(byte[] data, long sequence) {
+        synchronized (fileLock) {
+            if (sequence < writtenSequence) {
+                return; // A newer snapshot is already on disk
+            }
+            writtenSequence = sequence;
+
+            File tempFile = new File(plugin.getDataFolder(), "team_leaderboards.dat.tmp");
+            try {
+                Files.write(tempFile.toPath(), data);
+                Files.move(tempFile.toPath(), windowsFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not save leaderboards: " + e.getMessage());
+            }
+        }
+    }
+
+    private void load() {
+        if (!windowsFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(windowsFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                plugin.getLogger().warning("team_leaderboards.dat has an unknown format, starting fresh");
+                return;
+            }
+
+            seasonStart = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID teamId = new UUID(in.readLong(), in.readLong());
+                windows.put(teamId, TeamStatsWindow.read(in));
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load leaderboards: " + e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,42 @@
 package com.mcbzh.teams.managers;
 
 import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.config.PluginSettings;
 import com.mcbzh.teams.models.Team;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.ScoreboardManager;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public class NametagManager {
     private final TeamsPlugin plugin;
     private final TeamManager teamManager;
+    private final DebugManager debug;
     private final Map<String, org.bukkit.scoreboard.Team> teamScoreboards;
     private Scoreboard mainScoreboard;
 
+    // Per-viewer relation colors (null when relational mode is off)
+    private RelationalNametagManager relationalManager;
+
+    // Batched rebuild in progress (null when idle)
+    private BukkitTask rebuildTask;
+    // Periodic re-sync (nametag-settings.refresh-interval)
+    private BukkitTask refreshTask;
+
     // For triggering CustomScoreboard updates
     private Plugin scoreboardPlugin;
     private Method updateScoreboardMethod;
@@ -27,6 +44,7 @@ public class NametagManager {
     public NametagManager(TeamsPlugin plugin) {
         this.plugin = plugin;
         this.teamManager = plugin.getTeamManager();
+        this.debug = plugin.getDebugManager();
         this.teamScoreboards = new HashMap<>();
 
         // Get or create main scoreboard
@@ -38,10 +56,31 @@ public class NametagManager {
             plugin.getLogger().severe("Failed to initialize NametagManager - ScoreboardManager is null!");
         }
 
+        // Optional relational mode (teammate / ally / enemy colors per viewer)
+        PluginSettings.NametagSettings settings = plugin.getSettings().nametags;
+        if (settings.enabled && settings.relationalEnabled) {
+            relationalManager = new RelationalNametagManager(plugin, this);
+            plugin.getLogger().info("Relational nametags enabled");
+        }
+
+        // Re-sync nametags periodically to repair changes made by other plugins
+        if (settings.enabled && settings.refreshIntervalSeconds > 0) {
+            long interval = settings.refreshIntervalSeconds * 20L;
+            refreshTask = Bukkit.getScheduler().runTaskTimer(plugin, this::resyncOnlinePlayers, interval, interval);
+        }
+
         // Try to hook into ScoreboardPlugin to trigger updates
         setupScoreboardPluginHook();
     }
 
+    public boolean isRelational() {
+        return relationalManager != null;
+    }
+
+    public RelationalNametagManager getRelationalManager() {
+        return relationalManager;
+    }
+
     private void setupScoreboardPluginHook() {
         scoreboardPlugin = Bukkit.getPluginManager().getPlugin("CustomScoreboard");
         if (scoreboardPlugin != null) {
@@ -73,43 +112,120 @@ public class NametagManager {
      * Update a player's nametag (above their head in-game AND in tablist via scoreboard team)
      */
     public void updatePlayer(Player player) {
+        if (!plugin.getSettings().nametags.enabled) {
+            return;
+        }
+
         if (mainScoreboard == null) {
             plugin.getLogger().warning("Cannot update player " + player.getName() + " - scoreboard is null");
             return;
         }
 
-        // Remove player from any existing scoreboard team
-        removePlayerFromAllTeams(player);
+        // Scoreboard team prefixes also show in the tab list unless the list name is overridden
+        if (!plugin.getSettings().nametags.showInTablist) {
+            player.playerListName(Component.text(player.getName()));
+        }
+
+        if (relationalManager != null) {
+            relationalManager.updatePlayer(player);
+            triggerScoreboardUpdate(player);
+            return;
+        }
+
+        syncPlayer(player);
+
+        // Trigger CustomScoreboard update so they see changes immediately
+        triggerScoreboardUpdate(player);
+
+        if (debug.isEnabled()) debug.record("Updated nametag for " + player.getName());
+    }
 
+    /**
+     * Put a player on the scoreboard team matching their current team.
+     * A player already on the right scoreboard team is left in place (no remove/add packets).
+     *
+     * @return true if the player's scoreboard team changed
+     */
+    private boolean syncPlayer(Player player) {
         Team team = teamManager.getPlayerTeam(player.getUniqueId());
+        org.bukkit.scoreboard.Team current = mainScoreboard.getEntryTeam(player.getName());
+
+        if (team != null && current != null && current.getName().equals(getScoreboardTeamName(team))) {
+            teamScoreboards.putIfAbsent(current.getName(), current);
+            updateScoreboardTeamSettings(current, team);
+            return false;
+        }
+
+        // Remove player from any existing scoreboard team
+        removePlayerFromAllTeams(player);
 
         if (team != null) {
             // Add to team with colored prefix (for nametag above head AND tablist)
             addToScoreboardTeam(player, team);
         }
 
-        // Trigger CustomScoreboard update so they see changes immediately
-        triggerScoreboardUpdate(player);
+        return current != null || team != null;
+    }
 
-        plugin.getLogger().info("Updated nametag for " + player.getName());
+    /**
+     * Re-sync every online player; players already on the right scoreboard team cost no packets
+     */
+    private void resyncOnlinePlayers() {
+        if (mainScoreboard == null || rebuildTask != null) {
+            return;
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (relationalManager != null) {
+                relationalManager.updatePlayer(player);
+            } else if (syncPlayer(player)) {
+                triggerScoreboardUpdate(player);
+            }
+        }
     }
 
     /**
      * Update all players' nametags
      */
     public void updateAllPlayers() {
-        plugin.getLogger().info("Updating all player nametags...");
+        if (debug.isEnabled()) debug.record("Updating all player nametags...");
         for (Player player : Bukkit.getOnlinePlayers()) {
             updatePlayer(player);
         }
     }
 
+    /**
+     * Forget a player who is leaving the server
+     */
+    public void removePlayer(Player player) {
+        if (relationalManager != null) {
+            relationalManager.removePlayer(player);
+        }
+    }
+
+    /**
+     * Update how two teams see each other after an alliance is formed or broken
+     */
+    public void updateAlliance(Team first, Team second) {
+        if (relationalManager == null) return;
+
+        relationalManager.refreshAlliance(first, second);
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            triggerScoreboardUpdate(player);
+        }
+    }
+
     /**
      * Update a specific team's display for all members
      */
     public void updateTeam(Team team) {
         if (mainScoreboard == null) return;
 
+        if (relationalManager != null) {
+            relationalManager.refreshTeam(team);
+        }
+
         // Update the scoreboard team settings
         String teamName = getScoreboardTeamName(team);
         org.bukkit.scoreboard.Team scoreboardTeam = mainScoreboard.getTeam(teamName);
@@ -148,7 +264,7 @@ public class NametagManager {
 
             if (scoreboardTeam == null) {
                 scoreboardTeam = mainScoreboard.registerNewTeam(teamName);
-                plugin.getLogger().info("Created new scoreboard team: " + teamName);
+                if (debug.isEnabled()) debug.record("Created new scoreboard team: " + teamName);
             }
 
             teamScoreboards.put(teamName, scoreboardTeam);
@@ -160,72 +276,79 @@ public class NametagManager {
         // Add player to team
         if (!scoreboardTeam.hasEntry(player.getName())) {
             scoreboardTeam.addEntry(player.getName());
-            plugin.getLogger().info("Added " + player.getName() + " to scoreboard team: " + teamName);
+            if (debug.isEnabled()) debug.record("Added " + player.getName() + " to scoreboard team: " + teamName);
         }
     }
 
     /**
      * Update scoreboard team settings (prefix, color, etc.)
+     * Only values that differ are written, so an already-correct team sends no packets.
      * NOTE: Don't set suffix here - TabListPlugin handles suffix for deaths/AFK
      */
     private void updateScoreboardTeamSettings(org.bukkit.scoreboard.Team scoreboardTeam, Team team) {
         // Create a safe prefix (max 16 chars including color codes)
         String prefix = createSafePrefix(team);
+        boolean changed = false;
 
-        scoreboardTeam.setPrefix(prefix);
-        scoreboardTeam.setColor(team.getColor());
+        if (!prefix.equals(scoreboardTeam.getPrefix())) {
+            scoreboardTeam.setPrefix(prefix);
+            changed = true;
+        }
+        if (scoreboardTeam.getColor() != team.getColor()) {
+            scoreboardTeam.setColor(team.getColor());
+            changed = true;
+        }
 
         // DON'T set suffix here - TabListPlugin will handle it
         // scoreboardTeam.setSuffix(...);
 
         // Set options
-        scoreboardTeam.setAllowFriendlyFire(team.isFriendlyFire());
-        scoreboardTeam.setCanSeeFriendlyInvisibles(true);
+        if (scoreboardTeam.allowFriendlyFire() != team.isFriendlyFire()) {
+            scoreboardTeam.setAllowFriendlyFire(team.isFriendlyFire());
+            changed = true;
+        }
+        if (!scoreboardTeam.canSeeFriendlyInvisibles()) {
+            scoreboardTeam.setCanSeeFriendlyInvisibles(true);
+            changed = true;
+        }
 
         // Set name tag visibility
         try {
-            scoreboardTeam.setOption(org.bukkit.scoreboard.Team.Option.NAME_TAG_VISIBILITY,
-                    org.bukkit.scoreboard.Team.OptionStatus.ALWAYS);
+            if (scoreboardTeam.getOption(org.bukkit.scoreboard.Team.Option.NAME_TAG_VISIBILITY)
+                    != org.bukkit.scoreboard.Team.OptionStatus.ALWAYS) {
+                scoreboardTeam.setOption(org.bukkit.scoreboard.Team.Option.NAME_TAG_VISIBILITY,
+                        org.bukkit.scoreboard.Team.OptionStatus.ALWAYS);
+                changed = true;
+            }
         } catch (Exception e) {
             // Older version compatibility - ignore
         }
 
-        plugin.getLogger().info("Updated scoreboard team settings for: " + scoreboardTeam.getName() + " with prefix: " + prefix);
+        if (changed && debug.isEnabled()) debug.record("Updated scoreboard team settings for: " + scoreboardTeam.getName() + " with prefix: " + prefix);
     }
 
     /**
      * Create a safe prefix that fits within Minecraft's 16-character limit
-     * Format: §c[TAG]§r  (with space)
+     * Format: §c[TAG]§r  (with space) - cached on the team until its name, tag or color changes
      */
     private String createSafePrefix(Team team) {
-        String colorCode = team.getColor().toString(); // 2 chars (e.g., "§c")
-        String resetCode = ChatColor.RESET.toString(); // 2 chars (§r)
-
-        // Use tag if set, otherwise use display name
-        String text = team.getTag();
-        if (text == null || text.isEmpty()) {
-            text = team.getDisplayName();
-        }
-
-        // Format: §c[TEXT]§r
-        // Total: 2 + 1 + text + 1 + 2 + 1 = 7 + text length
-        // Maximum text length: 16 - 7 = 9 characters
+        return createSafePrefix(team, team.getColor());
+    }
 
-        int maxTextLength = 9;
-        if (text.length() > maxTextLength) {
-            text = text.substring(0, maxTextLength);
+    /**
+     * Create a safe prefix rendered in the given color (used by relational nametags)
+     */
+    String createSafePrefix(Team team, ChatColor color) {
+        boolean brackets = plugin.getSettings().nametags.useBrackets;
+        if (brackets && color == team.getColor()) {
+            return team.getNametagPrefix();
         }
 
-        String prefix = colorCode + "[" + text + "]" + resetCode + " ";
-
-        // Double check length (shouldn't exceed 16)
-        if (prefix.length() > 16) {
-            // Fallback: just use color code + truncated text
-            text = text.substring(0, Math.min(text.length(), 13));
-            prefix = colorCode + text + resetCode + " ";
+        String label = team.getNametagLabel();
+        if (!brackets) {
+            label = label.substring(1, label.length() - 1);
         }
-
-        return prefix;
+        return color + label + ChatColor.RESET + " ";
     }
 
     /**
@@ -234,36 +357,19 @@ public class NametagManager {
     private void removePlayerFromAllTeams(Player player) {
         if (mainScoreboard == null) return;
 
-        // Check all scoreboard teams
-        for (org.bukkit.scoreboard.Team team : mainScoreboard.getTeams()) {
-            if (team.hasEntry(player.getName())) {
-                team.removeEntry(player.getName());
-                plugin.getLogger().info("Removed " + player.getName() + " from scoreboard team: " + team.getName());
-            }
+        // An entry belongs to at most one team per scoreboard
+        org.bukkit.scoreboard.Team team = mainScoreboard.getEntryTeam(player.getName());
+        if (team != null) {
+            team.removeEntry(player.getName());
+            if (debug.isEnabled()) debug.record("Removed " + player.getName() + " from scoreboard team: " + team.getName());
         }
     }
 
     /**
-     * Get a consistent scoreboard team name for a team
-     * Use team name instead of UUID for consistency
+     * Get a consistent, collision-free scoreboard team name for a team (cached on the team)
      */
-    private String getScoreboardTeamName(Team team) {
-        // Use sanitized team name (max 16 chars for scoreboard team name)
-        String name = team.getName().replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
-
-        if (name.length() > 16) {
-            name = name.substring(0, 16);
-        }
-
-        // Prefix with color ordinal to ensure sorting in tablist
-        String colorPrefix = String.format("%02d", team.getColor().ordinal());
-
-        // Total max 16 chars: 2 (color) + 1 (underscore) + 13 (name)
-        if (name.length() > 13) {
-            name = name.substring(0, 13);
-        }
-
-        return colorPrefix + "_" + name;
+    String getScoreboardTeamName(Team team) {
+        return team.getScoreboardKey();
     }
 
     /**
@@ -272,13 +378,17 @@ public class NametagManager {
     public void removeTeamScoreboard(Team team) {
         if (mainScoreboard == null) return;
 
+        if (relationalManager != null) {
+            relationalManager.removeTeam(team);
+        }
+
         String teamName = getScoreboardTeamName(team);
         org.bukkit.scoreboard.Team scoreboardTeam = mainScoreboard.getTeam(teamName);
 
         if (scoreboardTeam != null) {
             scoreboardTeam.unregister();
             teamScoreboards.remove(teamName);
-            plugin.getLogger().info("Removed scoreboard team: " + teamName);
+            if (debug.isEnabled()) debug.record("Removed scoreboard team: " + teamName);
         }
 
         // Update all players' scoreboards
@@ -295,6 +405,10 @@ public class NametagManager {
 
         plugin.getLogger().info("Cleaning up all team scoreboards...");
 
+        if (relationalManager != null) {
+            relationalManager.shutdown();
+        }
+
         // Remove all tracked scoreboard teams
         for (org.bukkit.scoreboard.Team team : teamScoreboards.values()) {
             try {
@@ -309,24 +423,135 @@ public class NametagManager {
     }
 
     /**
-     * Refresh all scoreboards (useful after server reload)
+     * Stop background work on plugin disable.
+     * Scoreboard teams are unregistered unless nametag-settings.cleanup-on-disable is false,
+     * in which case a /reload reuses them instead of rebuilding from scratch.
+     */
+    public void shutdown() {
+        if (rebuildTask != null) {
+            rebuildTask.cancel();
+            rebuildTask = null;
+        }
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+
+        if (plugin.getSettings().nametags.cleanupOnDisable) {
+            cleanupAllTeams();
+        } else if (relationalManager != null) {
+            relationalManager.shutdown();
+        }
+    }
+
+    /**
+     * Refresh all scoreboards (useful after server reload).
+     * Existing scoreboard teams are diffed against the desired state and reused when correct,
+     * then players are re-synced in bounded batches per tick to avoid a lag spike.
      */
     public void refreshAllScoreboards() {
+        if (!plugin.getSettings().nametags.enabled) {
+            return;
+        }
         if (mainScoreboard == null) {
             plugin.getLogger().warning("Cannot refresh scoreboards - mainScoreboard is null");
             return;
         }
 
-        plugin.getLogger().info("Refreshing all scoreboards...");
+        if (rebuildTask != null) {
+            rebuildTask.cancel();
+            rebuildTask = null;
+        }
 
-        // Clean up existing teams
-        cleanupAllTeams();
+        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        int batchSize = plugin.getSettings().nametags.rebuildBatchSize;
 
-        // Recreate scoreboards for all online players
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            updatePlayer(player);
+        if (relationalManager == null) {
+            reconcileScoreboardTeams(players);
+        }
+
+        plugin.getLogger().info("Refreshing nametags for " + players.size() + " players (" +
+                batchSize + " per tick)...");
+
+        rebuildTask = new BukkitRunnable() {
+            private int index = 0;
+            private int changed = 0;
+
+            @Override
+            public void run() {
+                int end = Math.min(index + batchSize, players.size());
+
+                for (; index < end; index++) {
+                    Player player = players.get(index);
+                    if (!player.isOnline()) {
+                        continue;
+                    }
+
+                    if (relationalManager != null) {
+                        relationalManager.updatePlayer(player);
+                        changed++;
+                        triggerScoreboardUpdate(player);
+                    } else if (syncPlayer(player)) {
+                        changed++;
+                        triggerScoreboardUpdate(player);
+                    }
+                }
+
+                if (index < players.size()) {
+                    plugin.getLogger().info("Nametag refresh: " + index + "/" + players.size() + " players");
+                    return;
+                }
+
+                plugin.getLogger().info("Scoreboard refresh complete (" + changed + " of " +
+                        players.size() + " players changed)");
+                cancel();
+                rebuildTask = null;
+            }
+        }.runTaskTimer(plugin, 0L, 1L);
+    }
+
+    /**
+     * Diff our registered scoreboard teams against the teams of online players:
+     * reuse (and patch) teams that are still wanted, unregister the rest.
+     * Only names that exactly match a loaded team's key count as ours, so scoreboard teams
+     * created by other plugins or map makers are never touched.
+     */
+    private void reconcileScoreboardTeams(List<Player> players) {
+        Set<String> managed = new HashSet<>();
+        for (Team team : teamManager.getAllTeams()) {
+            managed.add(getScoreboardTeamName(team));
+        }
+
+        Map<String, Team> desired = new HashMap<>();
+        for (Player player : players) {
+            Team team = teamManager.getPlayerTeam(player.getUniqueId());
+            if (team != null) {
+                desired.put(getScoreboardTeamName(team), team);
+            }
+        }
+
+        int reused = 0;
+        int removed = 0;
+
+        for (org.bukkit.scoreboard.Team scoreboardTeam : new ArrayList<>(mainScoreboard.getTeams())) {
+            String name = scoreboardTeam.getName();
+            if (!managed.contains(name)) {
+                continue;
+            }
+
+            Team team = desired.get(name);
+            if (team == null) {
+                scoreboardTeam.unregister();
+                teamScoreboards.remove(name);
+                removed++;
+            } else {
+                updateScoreboardTeamSettings(scoreboardTeam, team);
+                teamScoreboards.put(name, scoreboardTeam);
+                reused++;
+            }
         }
 
-        plugin.getLogger().info("Scoreboard refresh complete");
+        plugin.getLogger().info("Scoreboard teams: reused " + reused + ", removed " + removed +
+                " stale, " + (desired.size() - reused) + " to create");
     }
-}
\ No newline at end of file
+}
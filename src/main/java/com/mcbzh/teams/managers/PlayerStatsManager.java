@@ -0,0 +1,348 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.Team;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player kill, death, assist and damage statistics.
+ *
+ * Each player's stats are one long[] indexed by Stat.ordinal(), so memory is a single small
+ * array per player. Team totals are kept in the same form and updated alongside the player,
+ * which makes them available without scanning members. All updates happen on the main thread
+ * (combat events), so plain arrays are enough; the file is written from a snapshot off-thread.
+ */
+public class PlayerStatsManager {
+
+    public enum Stat {
+        KILLS("Kills"),
+        DEATHS("Deaths"),
+        ASSISTS("Assists"),
+        DAMAGE("Damage Dealt");
+
+        private final String displayName;
+
+        Stat(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public static Stat fromName(String name) {
+            for (Stat stat : values()) {
+                if (stat.name().equalsIgnoreCase(name)) {
+                    return stat;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int STAT_COUNT = Stat.values().length;
+    private static final int FILE_MAGIC = 0x54535031; // "TSP1"
+    private static final int MAX_ASSISTERS = 4;
+    // Damage is stored in hundredths of a health point
+    private static final double DAMAGE_SCALE = 100.0;
+
+    private final TeamsPlugin plugin;
+    private final TeamManager teamManager;
+    private final File statsFile;
+    private final long assistWindowMillis;
+    private final long leaderboardIntervalMillis;
+    private final Object fileLock = new Object();
+    // Snapshot numbers: an async write that lost the race to a newer one is skipped
+    private long saveSequence;
+    private long writtenSequence; // Guarded by fileLock
+
+    private final Map<UUID, long[]> playerStats;
+    private final Map<UUID, long[]> teamStats;
+    // Victim -> players who recently damaged them (for assists)
+    private final Map<UUID, RecentAttackers> recentAttackers;
+
+    private final Map<Stat, List<UUID>> leaderboards;
+    private long leaderboardsBuiltAt;
+    private boolean dirty;
+
+    public PlayerStatsManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        this.teamManager = plugin.getTeamManager();
+        this.statsFile = new File(plugin.getDataFolder(), "player_stats.dat");
+        this.assistWindowMillis = plugin.getSettings().statistics.assistWindowMillis;
+        this.leaderboardIntervalMillis = plugin.getSettings().statistics.leaderboardUpdateMillis;
+        this.playerStats = new HashMap<>();
+        this.teamStats = new HashMap<>();
+        this.recentAttackers = new HashMap<>();
+        this.leaderboards = new EnumMap<>(Stat.class);
+
+        load();
+    }
+
+    /**
+     * Record damage dealt by one player to another
+     */
+    public void recordDamage(Player attacker, Player victim, double damage) {
+        long amount = Math.round(damage * DAMAGE_SCALE);
+        add(attacker.getUniqueId(), Stat.DAMAGE, amount);
+
+        recentAttackers.computeIfAbsent(victim.getUniqueId(), id -> new RecentAttackers())
+                .record(attacker.getUniqueId(), System.currentTimeMillis());
+    }
+
+    /**
+     * Record a death, the kill (if countKill) and assists for recent attackers other than the killer
+     */
+    public void recordDeath(Player victim, Player killer, boolean countKill) {
+        UUID victimId = victim.getUniqueId();
+        UUID killerId = killer != null ? killer.getUniqueId() : null;
+
+        add(victimId, Stat.DEATHS, 1);
+
+        if (killerId != null && countKill) {
+            add(killerId, Stat.KILLS, 1);
+        }
+
+        RecentAttackers attackers = recentAttackers.remove(victimId);
+        if (attackers != null) {
+            long cutoff = System.currentTimeMillis() - assistWindowMillis;
+            for (int i = 0; i < MAX_ASSISTERS; i++) {
+                UUID assister = attackers.players[i];
+                if (assister != null && attackers.times[i] >= cutoff &&
+                        !assister.equals(killerId) && !assister.equals(victimId)) {
+                    add(assister, Stat.ASSISTS, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget pending assist data for a player leaving the server
+     */
+    public void clearRecentDamage(UUID playerId) {
+        recentAttackers.remove(playerId);
+    }
+
+    private void add(UUID playerId, Stat stat, long amount) {
+        playerStats.computeIfAbsent(playerId, id -> new long[STAT_COUNT])[stat.ordinal()] += amount;
+
+        // Attribute to the player's current team
+        Team team = teamManager.getPlayerTeam(playerId);
+        if (team != null) {
+            teamStats.computeIfAbsent(team.getId(), id -> new long[STAT_COUNT])[stat.ordinal()] += amount;
+        }
+
+        dirty = true;
+    }
+
+    public long getStat(UUID playerId, Stat stat) {
+        long[] stats = playerStats.get(playerId);
+        return stats != null ? stats[stat.ordinal()] : 0;
+    }
+
+    public long getTeamStat(UUID teamId, Stat stat) {
+        long[] stats = teamStats.get(teamId);
+        return stats != null ? stats[stat.ordinal()] : 0;
+    }
+
+    /**
+     * Forget a disbanded team's totals so they are not kept in memory or saved again
+     */
+    public void removeTeam(UUID teamId) {
+        if (teamStats.remove(teamId) != null) {
+            dirty = true;
+        }
+    }
+
+    public boolean hasStats(UUID playerId) {
+        return playerStats.containsKey(playerId);
+    }
+
+    /**
+     * Format a stat value for display (damage is shown in hearts)
+     */
+    public String format(Stat stat, long value) {
+        if (stat == Stat.DAMAGE) {
+            return String.format("%.1f", value / DAMAGE_SCALE / 2.0) + " ❤";
+        }
+        return String.valueOf(value);
+    }
+
+    public double getKDRatio(UUID playerId) {
+        long kills = getStat(playerId, Stat.KILLS);
+        long deaths = getStat(playerId, Stat.DEATHS);
+        return deaths == 0 ? kills : (double) kills / deaths;
+    }
+
+    /**
+     * Top players for a stat. Rankings are rebuilt at most every
+     * statistics.leaderboard-update-interval minutes.
+     */
+    public List<UUID> getLeaderboard(Stat stat, int limit) {
+        long now = System.currentTimeMillis();
+        if (leaderboards.isEmpty() || now - leaderboardsBuiltAt >= leaderboardIntervalMillis) {
+            rebuildLeaderboards();
+            leaderboardsBuiltAt = now;
+        }
+
+        List<UUID> ranking = leaderboards.get(stat);
+        return ranking.size() <= limit ? ranking : ranking.subList(0, limit);
+    }
+
+    private void rebuildLeaderboards() {
+        int size = plugin.getSettings().statistics.leaderboardSize;
+
+        for (Stat stat : Stat.values()) {
+            int index = stat.ordinal();
+            List<UUID> ranking = new ArrayList<>(playerStats.keySet());
+            ranking.removeIf(id -> playerStats.get(id)[index] == 0);
+            ranking.sort((a, b) -> Long.compare(playerStats.get(b)[index], playerStats.get(a)[index]));
+            leaderboards.put(stat, Collections.unmodifiableList(
+                    new ArrayList<>(ranking.subList(0, Math.min(size, ranking.size())))));
+        }
+    }
+
+    /**
+     * Write stats to disk if anything changed. The write happens off the main thread
+     * unless async is false (shutdown).
+     */
+    public void save(boolean async) {
+        if (!dirty) {
+            return;
+        }
+
+        Map<UUID, long[]> players = snapshot(playerStats);
+        Map<UUID, long[]> teams = snapshot(teamStats);
+        long sequence = ++saveSequence;
+        dirty = false;
+
+        if (async) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> write(players, teams, sequence));
+        } else {
+            write(players, teams, sequence);
+        }
+    }
+
+    private Map<UUID, long[]> snapshot(Map<UUID, long[]> source) {
+        Map<UUID, long[]> copy = new HashMap<>(source.size());
+        for (Map.Entry<UUID, long[]> entry : source.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    private void write(Map<UUID, long[]> players, Map<UUID, long[]> teams, long sequence) {
+        synchronized (fileLock) {
+            if (sequence < writtenSequence) {
+                return; // A newer snapshot is already on disk
+            }
+            writtenSequence = sequence;
+
+            File tempFile = new File(plugin.getDataFolder(), "player_stats.dat.tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(STAT_COUNT);
+                writeSection(out, players);
+                writeSection(out, teams);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not save player statistics: " + e.getMessage());
+                return;
+            }
+
+            try {
+                Files.move(tempFile.toPath(), statsFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not replace player_stats.dat: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeSection(DataOutputStream out, Map<UUID, long[]> section) throws IOException {
+        out.writeInt(section.size());
+        for (Map.Entry<UUID, long[]> entry : section.entrySet()) {
+            out.writeLong(entry.getKey().getMostSignificantBits());
+            out.writeLong(entry.getKey().getLeastSignificantBits());
+            for (long value : entry.getValue()) {
+                out.writeLong(value);
+            }
+        }
+    }
+
+    private void load() {
+        if (!statsFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(statsFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                plugin.getLogger().warning("player_stats.dat has an unknown format, starting fresh");
+                return;
+            }
+
+            int storedStats = in.readInt();
+            readSection(in, playerStats, storedStats);
+            readSection(in, teamStats, storedStats);
+
+            plugin.getLogger().info("Loaded statistics for " + playerStats.size() + " players");
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load player statistics: " + e.getMessage());
+        }
+    }
+
+    private void readSection(DataInputStream in, Map<UUID, long[]> section, int storedStats) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            UUID id = new UUID(in.readLong(), in.readLong());
+            long[] stats = new long[STAT_COUNT];
+            for (int s = 0; s < storedStats; s++) {
+                long value = in.readLong();
+                if (s < STAT_COUNT) {
+                    stats[s] = value;
+                }
+            }
+            section.put(id, stats);
+        }
+    }
+
+    /**
+     * Last few distinct attackers of a victim, oldest overwritten first
+     */
+    private static final class RecentAttackers {
+        private final UUID[] players = new UUID[MAX_ASSISTERS];
+        private final long[] times = new long[MAX_ASSISTERS];
+
+        private void record(UUID attacker, long time) {
+            int oldest = 0;
+            for (int i = 0; i < MAX_ASSISTERS; i++) {
+                if (attacker.equals(players[i])) {
+                    times[i] = time;
+                    return;
+                }
+                if (times[i] < times[oldest]) {
+                    oldest = i;
+                }
+            }
+            players[oldest] = attacker;
+            times[oldest] = time;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.mcbzh.teams.managers;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.Team;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Player names and skin textures by UUID, so GUIs and info output never look up offline
+ * players on the main thread.
+ *
+ * Profiles are recorded on join and kept in player_profiles.dat. A UUID that is not cached is
+ * queued, and every second up to BATCH_SIZE queued profiles are completed off the main thread
+ * and merged back on it. The teams of resolved players are marked changed, so open menus swap
+ * their placeholders through the normal menu refresh. All maps are main-thread only.
+ */
+public class ProfileCache {
+    private static final int FILE_MAGIC = 0x54505031; // "TPP1"
+    private static final int BATCH_SIZE = 16;
+    private static final long RESOLVE_INTERVAL_TICKS = 20L;
+
+    /**
+     * Shown while a lookup is still queued or running
+     */
+    public static final String PENDING_NAME = "Loading...";
+    public static final String UNKNOWN_NAME = "Unknown";
+
+    private final TeamsPlugin plugin;
+    private final File profileFile;
+    private final Object fileLock = new Object();
+    // Snapshot numbers: an async write that lost the race to a newer one is skipped
+    private long saveSequence;
+    private long writtenSequence; // Guarded by fileLock
+
+    private final Map<UUID, CachedProfile> profiles = new HashMap<>();
+    // Misses waiting for a lookup, oldest first
+    private final Set<UUID> pending = new LinkedHashSet<>();
+    // Lookups that found nothing; not retried until the next restart
+    private final Set<UUID> unresolvable = new HashSet<>();
+    private boolean resolving;
+    private boolean dirty;
+    private BukkitTask resolveTask;
+
+    public ProfileCache(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        this.profileFile = new File(plugin.getDataFolder(), "player_profiles.dat");
+
+        load();
+
+        // Players already online after a reload never fire a join event
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            remember(player);
+        }
+
+        resolveTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::resolveBatch,
+                RESOLVE_INTERVAL_TICKS, RESOLVE_INTERVAL_TICKS);
+    }
+
+    /**
+     * Record the name and skin of an online player
+     */
+    public void remember(Player player) {
+        CachedProfile profile = fromProfile(player.getName(), player.getPlayerProfile());
+        if (!profile.equals(profiles.get(player.getUniqueId()))) {
+            profiles.put(player.getUniqueId(), profile);
+            dirty = true;
+        }
+        pending.remove(player.getUniqueId());
+        unresolvable.remove(player.getUniqueId());
+    }
+
+    /**
+     * Cached profile, or null if it is not known yet (a lookup is then queued)
+     */
+    public CachedProfile get(UUID playerId) {
+        CachedProfile profile = profiles.get(playerId);
+        if (profile == null && !unresolvable.contains(playerId)) {
+            pending.add(playerId);
+        }
+        return profile;
+    }
+
+    /**
+     * Player name, or null if it is not known yet (a lookup is then queued)
+     */
+    public String getName(UUID playerId) {
+        Player online = Bukkit.getPlayer(playerId);
+        if (online != null) {
+            return online.getName();
+        }
+
+        CachedProfile profile = get(playerId);
+        return profile != null ? profile.getName() : null;
+    }
+
+    /**
+     * Player name for display: the name, PENDING_NAME while a lookup is queued, or UNKNOWN_NAME
+     */
+    public String getDisplayName(UUID playerId) {
+        String name = getName(playerId);
+        if (name != null) {
+            return name;
+        }
+        return unresolvable.contains(playerId) ? UNKNOWN_NAME : PENDING_NAME;
+    }
+
+    /**
+     * UUID of a cached player with this name (case-insensitive), or null. Scans the cache,
+     * so it is meant for commands, not per-tick use.
+     */
+    public UUID findByName(String name) {
+        for (Map.Entry<UUID, CachedProfile> entry : profiles.entrySet()) {
+            if (entry.getValue().getName().equalsIgnoreCase(name)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start an off-thread lookup for the next batch of misses, unless one is still running
+     */
+    private void resolveBatch() {
+        if (resolving || pending.isEmpty()) {
+            return;
+        }
+
+        List<UUID> batch = new ArrayList<>(BATCH_SIZE);
+        Iterator<UUID> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+
+        resolving = true;
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<UUID, CachedProfile> resolved = new HashMap<>();
+            for (UUID playerId : batch) {
+                try {
+                    // complete() may read the server's user cache or ask the session service
+                    PlayerProfile profile = Bukkit.createProfile(playerId);
+                    if (profile.complete(true) && profile.getName() != null) {
+                        resolved.put(playerId, fromProfile(profile.getName(), profile));
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Could not look up profile " + playerId + ": " + e.getMessage());
+                }
+            }
+
+            if (plugin.isEnabled()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> merge(batch, resolved));
+            }
+        });
+    }
+
+    private void merge(List<UUID> batch, Map<UUID, CachedProfile> resolved) {
+        resolving = false;
+
+        TeamManager teamManager = plugin.getTeamManager();
+        boolean teamsChanged = false;
+        for (UUID playerId : batch) {
+            CachedProfile profile = resolved.get(playerId);
+            if (profile == null) {
+                unresolvable.add(playerId);
+                continue;
+            }
+
+            // A join during the lookup already stored a fresher profile
+            if (profiles.putIfAbsent(playerId, profile) == null) {
+                dirty = true;
+            }
+
+            Team team = teamManager.getPlayerTeam(playerId);
+            if (team != null) {
+                team.markChanged();
+                teamsChanged = true;
+            }
+        }
+
+        if (teamsChanged) {
+            plugin.getMenuTracker().requestRefresh();
+        }
+    }
+
+    private static CachedProfile fromProfile(String name, PlayerProfile profile) {
+        if (profile != null) {
+            for (ProfileProperty property : profile.getProperties()) {
+                if (property.getName().equals("textures")) {
+                    return new CachedProfile(name, property.getValue(), property.getSignature());
+                }
+            }
+        }
+        return new CachedProfile(name, null, null);
+    }
+
+    /**
+     * Write the cache to disk if anything changed. The write happens off the main thread
+     * unless async is false (shutdown).
+     */
+    public void save(boolean async) {
+        if (!dirty) {
+            return;
+        }
+
+        Map<UUID, CachedProfile> snapshot = new HashMap<>(profiles); // Entries are immutable
+        long sequence = ++saveSequence;
+        dirty = false;
+
+        if (async) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> write(snapshot, sequence));
+        } else {
+            write(snapshot, sequence);
+        }
+    }
+
+    private void write(Map<UUID, CachedProfile> snapshot, long sequence) {
+        synchronized (fileLock) {
+            if (sequence < writtenSequence) {
+                return; // A newer snapshot is already on disk
+            }
+            writtenSequence = sequence;
+
+            File tempFile = new File(plugin.getDataFolder(), "player_profiles.dat.tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<UUID, CachedProfile> entry : snapshot.entrySet()) {
+                    CachedProfile profile = entry.getValue();
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.writeUTF(profile.name);
+                    out.writeUTF(profile.textures != null ? profile.textures : "");
+                    out.writeUTF(profile.signature != null ? profile.signature : "");
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not save player profiles: " + e.getMessage());
+                return;
+            }
+
+            try {
+                Files.move(tempFile.toPath(), profileFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not replace player_profiles.dat: " + e.getMessage());
+            }
+        }
+    }
+
+    private void load() {
+        if (!profileFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(profileFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                plugin.getLogger().warning("player_profiles.dat has an unknown format, starting fresh");
+                return;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                String name = in.readUTF();
+                String textures = in.readUTF();
+                String signature = in.readUTF();
+                profiles.put(id, new CachedProfile(name,
+                        textures.isEmpty() ? null : textures,
+                        signature.isEmpty() ? null : signature));
+            }
+
+            plugin.getLogger().info("Loaded " + profiles.size() + " cached player profiles");
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load player profiles: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        if (resolveTask != null) {
+            resolveTask.cancel();
+            resolveTask = null;
+        }
+        save(false);
+    }
+
+    /**
+     * Name and skin of one player. Immutable, so snapshots can be written off-thread.
+     */
+    public static final class CachedProfile {
+        private final String name;
+        private final String textures;
+        private final String signature;
+
+        CachedProfile(String name, String textures, String signature) {
+            this.name = name;
+            this.textures = textures;
+            this.signature = signature;
+        }
+
+        public String getName() { return name; }
+        public String getTextures() { return textures; }
+        public String getSignature() { return signature; }
+
+        public boolean hasTextures() {
+            return textures != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CachedProfile)) return false;
+            CachedProfile other = (CachedProfile) o;
+            return name.equals(other.name) && Objects.equals(textures, other.textures) &&
+                    Objects.equals(signature, other.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + (textures != null ? textures.hashCode() : 0);
+        }
+    }
+}
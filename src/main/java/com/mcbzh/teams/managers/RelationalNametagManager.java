@@ -0,0 +1,341 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.Team;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.ScoreboardManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Relational nametags: every viewer sees teammates, allies and enemies in different colors.
+ *
+ * All viewers on the same team have the same relation to every other player, so they share
+ * one pooled scoreboard. Teamless viewers share a single neutral pool that shows plain team
+ * colors. The number of scoreboards is therefore bounded by (online teams + 1), never by the
+ * number of players, and a membership change touches each pool once.
+ */
+public class RelationalNametagManager {
+
+    public enum Relation {
+        TEAMMATE,
+        ALLY,
+        ENEMY,
+        NEUTRAL
+    }
+
+    private final TeamsPlugin plugin;
+    private final TeamManager teamManager;
+    private final NametagManager nametagManager;
+
+    // Viewer team ID -> pooled scoreboard (null key = teamless viewers)
+    private final Map<UUID, Pool> pools;
+    // Player -> team ID whose entry they currently occupy in every pool
+    private final Map<UUID, UUID> trackedTeams;
+    // Team ID -> names of online members (used to populate new pools)
+    private final Map<UUID, Set<String>> onlineEntries;
+
+    private final ChatColor teammateColor;
+    private final ChatColor allyColor;
+    private final ChatColor enemyColor;
+
+    public RelationalNametagManager(TeamsPlugin plugin, NametagManager nametagManager) {
+        this.plugin = plugin;
+        this.teamManager = plugin.getTeamManager();
+        this.nametagManager = nametagManager;
+        this.pools = new HashMap<>();
+        this.trackedTeams = new HashMap<>();
+        this.onlineEntries = new HashMap<>();
+
+        this.teammateColor = plugin.getSettings().nametags.teammateColor;
+        this.allyColor = plugin.getSettings().nametags.allyColor;
+        this.enemyColor = plugin.getSettings().nametags.enemyColor;
+    }
+
+    /**
+     * Place a player in the correct pool and refresh their entry in every pool
+     */
+    public void updatePlayer(Player player) {
+        UUID playerId = player.getUniqueId();
+        Team team = teamManager.getPlayerTeam(playerId);
+        UUID newTeamId = team != null ? team.getId() : null;
+
+        // Move the player's nametag entry if their team changed
+        UUID oldTeamId = trackedTeams.get(playerId);
+        if (trackedTeams.containsKey(playerId) && !sameTeam(oldTeamId, newTeamId)) {
+            removeEntry(player.getName(), oldTeamId);
+        }
+        if (!trackedTeams.containsKey(playerId) || !sameTeam(oldTeamId, newTeamId)) {
+            trackedTeams.put(playerId, newTeamId);
+            if (team != null) {
+                addEntry(player.getName(), team);
+            }
+        }
+
+        // Move the player into the pool matching their relation vector
+        Pool pool = getOrCreatePool(newTeamId);
+        for (Pool other : pools.values()) {
+            if (other != pool) {
+                other.viewers.remove(playerId);
+            }
+        }
+        pool.viewers.add(playerId);
+        if (player.getScoreboard() != pool.board) {
+            player.setScoreboard(pool.board);
+
+            DebugManager debug = plugin.getDebugManager();
+            if (debug.isEnabled()) debug.record("Moved " + player.getName() + " to relational pool " + newTeamId);
+        }
+
+        pruneEmptyPools();
+    }
+
+    /**
+     * Forget a player who is leaving the server
+     */
+    public void removePlayer(Player player) {
+        UUID playerId = player.getUniqueId();
+        if (trackedTeams.containsKey(playerId)) {
+            removeEntry(player.getName(), trackedTeams.remove(playerId));
+        }
+
+        for (Pool pool : pools.values()) {
+            pool.viewers.remove(playerId);
+        }
+
+        pruneEmptyPools();
+    }
+
+    /**
+     * Re-render a team's prefix in every pool (tag, color or name changed)
+     */
+    public void refreshTeam(Team team) {
+        for (Pool pool : pools.values()) {
+            org.bukkit.scoreboard.Team scoreboardTeam = pool.teams.get(team.getId());
+            if (scoreboardTeam != null) {
+                applySettings(scoreboardTeam, team, relationOf(pool.viewerTeamId, team));
+            }
+        }
+    }
+
+    /**
+     * Re-render the relation between two teams after an alliance is formed or broken
+     */
+    public void refreshAlliance(Team first, Team second) {
+        refreshRelation(first, second);
+        refreshRelation(second, first);
+    }
+
+    private void refreshRelation(Team viewerTeam, Team target) {
+        Pool pool = pools.get(viewerTeam.getId());
+        if (pool == null) {
+            return;
+        }
+
+        org.bukkit.scoreboard.Team scoreboardTeam = pool.teams.get(target.getId());
+        if (scoreboardTeam != null) {
+            applySettings(scoreboardTeam, target, relationOf(viewerTeam.getId(), target));
+        }
+    }
+
+    /**
+     * Drop a disbanded team from every pool
+     */
+    public void removeTeam(Team team) {
+        onlineEntries.remove(team.getId());
+
+        for (Pool pool : pools.values()) {
+            org.bukkit.scoreboard.Team scoreboardTeam = pool.teams.remove(team.getId());
+            if (scoreboardTeam != null) {
+                scoreboardTeam.unregister();
+            }
+        }
+
+        trackedTeams.values().removeIf(teamId -> team.getId().equals(teamId));
+    }
+
+    /**
+     * Move every viewer back to the main scoreboard and drop all pools
+     */
+    public void shutdown() {
+        ScoreboardManager manager = Bukkit.getScoreboardManager();
+        for (Pool pool : pools.values()) {
+            for (UUID viewerId : pool.viewers) {
+                Player viewer = Bukkit.getPlayer(viewerId);
+                if (viewer != null && manager != null) {
+                    viewer.setScoreboard(manager.getMainScoreboard());
+                }
+            }
+        }
+
+        pools.clear();
+        trackedTeams.clear();
+        onlineEntries.clear();
+    }
+
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    public int getScoreboardTeamCount() {
+        int count = 0;
+        for (Pool pool : pools.values()) {
+            count += pool.teams.size();
+        }
+        return count;
+    }
+
+    private void addEntry(String entry, Team team) {
+        onlineEntries.computeIfAbsent(team.getId(), id -> new HashSet<>()).add(entry);
+
+        for (Pool pool : pools.values()) {
+            getOrCreateScoreboardTeam(pool, team).addEntry(entry);
+        }
+    }
+
+    private void removeEntry(String entry, UUID teamId) {
+        if (teamId == null) {
+            return;
+        }
+
+        Set<String> entries = onlineEntries.get(teamId);
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                onlineEntries.remove(teamId);
+            }
+        }
+
+        boolean teamEmpty = entries == null || entries.isEmpty();
+        for (Pool pool : pools.values()) {
+            org.bukkit.scoreboard.Team scoreboardTeam = pool.teams.get(teamId);
+            if (scoreboardTeam == null) {
+                continue;
+            }
+
+            if (teamEmpty) {
+                // No online members left - drop the team from the pool entirely
+                scoreboardTeam.unregister();
+                pool.teams.remove(teamId);
+            } else {
+                scoreboardTeam.removeEntry(entry);
+            }
+        }
+    }
+
+    private Pool getOrCreatePool(UUID viewerTeamId) {
+        Pool pool = pools.get(viewerTeamId);
+        if (pool != null) {
+            return pool;
+        }
+
+        pool = new Pool(viewerTeamId, Bukkit.getScoreboardManager().getNewScoreboard());
+        pools.put(viewerTeamId, pool);
+
+        // Populate with every team that currently has online members
+        for (Map.Entry<UUID, Set<String>> entry : onlineEntries.entrySet()) {
+            Team team = teamManager.getTeam(entry.getKey());
+            if (team == null) {
+                continue;
+            }
+
+            org.bukkit.scoreboard.Team scoreboardTeam = getOrCreateScoreboardTeam(pool, team);
+            for (String name : entry.getValue()) {
+                scoreboardTeam.addEntry(name);
+            }
+        }
+
+        return pool;
+    }
+
+    private void pruneEmptyPools() {
+        Iterator<Pool> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            Pool pool = iterator.next();
+            if (pool.viewers.isEmpty()) {
+                for (org.bukkit.scoreboard.Team scoreboardTeam : pool.teams.values()) {
+                    scoreboardTeam.unregister();
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private org.bukkit.scoreboard.Team getOrCreateScoreboardTeam(Pool pool, Team team) {
+        org.bukkit.scoreboard.Team scoreboardTeam = pool.teams.get(team.getId());
+        if (scoreboardTeam == null) {
+            String name = nametagManager.getScoreboardTeamName(team);
+            scoreboardTeam = pool.board.getTeam(name);
+            if (scoreboardTeam == null) {
+                scoreboardTeam = pool.board.registerNewTeam(name);
+            }
+            applySettings(scoreboardTeam, team, relationOf(pool.viewerTeamId, team));
+            pool.teams.put(team.getId(), scoreboardTeam);
+        }
+        return scoreboardTeam;
+    }
+
+    private void applySettings(org.bukkit.scoreboard.Team scoreboardTeam, Team team, Relation relation) {
+        ChatColor color = colorOf(relation, team);
+        scoreboardTeam.setPrefix(nametagManager.createSafePrefix(team, color));
+        scoreboardTeam.setColor(color);
+        scoreboardTeam.setAllowFriendlyFire(team.isFriendlyFire());
+        scoreboardTeam.setCanSeeFriendlyInvisibles(relation == Relation.TEAMMATE);
+    }
+
+    /**
+     * Relation of a target team as seen by members of the viewer team
+     */
+    public Relation relationOf(UUID viewerTeamId, Team target) {
+        if (viewerTeamId == null) {
+            return Relation.NEUTRAL;
+        }
+        if (viewerTeamId.equals(target.getId())) {
+            return Relation.TEAMMATE;
+        }
+        if (target.isAlly(viewerTeamId)) {
+            return Relation.ALLY;
+        }
+        return Relation.ENEMY;
+    }
+
+    private ChatColor colorOf(Relation relation, Team team) {
+        switch (relation) {
+            case TEAMMATE:
+                return teammateColor;
+            case ALLY:
+                return allyColor;
+            case ENEMY:
+                return enemyColor;
+            default:
+                return team.getColor();
+        }
+    }
+
+    private boolean sameTeam(UUID first, UUID second) {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    private static class Pool {
+        private final UUID viewerTeamId;
+        private final Scoreboard board;
+        private final Set<UUID> viewers;
+        // Target team ID -> scoreboard team on this board
+        private final Map<UUID, org.bukkit.scoreboard.Team> teams;
+
+        private Pool(UUID viewerTeamId, Scoreboard board) {
+            this.viewerTeamId = viewerTeamId;
+            this.board = board;
+            this.viewers = new HashSet<>();
+            this.teams = new HashMap<>();
+        }
+    }
+}
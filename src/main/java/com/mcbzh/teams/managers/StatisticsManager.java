@@ -0,0 +1,227 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.Team;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Aggregates team kill/death statistics in memory and persists them in batches.
+ *
+ * Deaths update the in-memory teams immediately (so leaderboards stay current) and only mark
+ * the data dirty. A timer saves dirty data every statistics.flush-interval-seconds, so a busy
+ * PvP event costs one save per interval instead of one per death, and a crash loses at most
+ * one interval of statistics. Per-player statistics live in PlayerStatsManager and are flushed
+ * on the same timer, as are the daily/weekly/season windows kept by LeaderboardManager.
+ * Kills that KillFarmDetector flags as farming are logged but not counted.
+ */
+public class StatisticsManager {
+    // Seconds covered by the kill rate window
+    private static final int RATE_WINDOW = 60;
+
+    private final TeamsPlugin plugin;
+    private final TeamManager teamManager;
+    private final boolean enabled;
+    private final PlayerStatsManager playerStats;
+    private final LeaderboardManager leaderboards;
+    private final CombatLogManager combatLog;
+    private final KillFarmDetector farmDetector;
+
+    private boolean dirty;
+    private int pendingEvents;
+    private long totalFlushes;
+    private BukkitTask flushTask;
+
+    // Kills per second over the last RATE_WINDOW seconds (ring indexed by epoch second)
+    private final int[] killBuckets = new int[RATE_WINDOW];
+    private final long[] bucketSeconds = new long[RATE_WINDOW];
+
+    public StatisticsManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        this.teamManager = plugin.getTeamManager();
+        this.enabled = plugin.getSettings().statistics.enabled;
+        this.playerStats = new PlayerStatsManager(plugin);
+        this.leaderboards = new LeaderboardManager(plugin);
+        this.combatLog = new CombatLogManager(plugin);
+        this.farmDetector = new KillFarmDetector(plugin);
+
+        if (enabled) {
+            long interval = plugin.getSettings().statistics.flushIntervalTicks;
+            flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public PlayerStatsManager getPlayerStats() {
+        return playerStats;
+    }
+
+    public LeaderboardManager getLeaderboards() {
+        return leaderboards;
+    }
+
+    public CombatLogManager getCombatLog() {
+        return combatLog;
+    }
+
+    public KillFarmDetector getFarmDetector() {
+        return farmDetector;
+    }
+
+    /**
+     * Record PvP damage (for damage dealt and assists)
+     */
+    public void recordDamage(Player attacker, Player victim, double damage) {
+        if (!enabled) {
+            return;
+        }
+        playerStats.recordDamage(attacker, victim, damage);
+    }
+
+    /**
+     * Record a player death and, if applicable, the kill for the killer's team
+     */
+    public void recordDeath(Player victim, Player killer) {
+        if (!enabled) {
+            return;
+        }
+
+        // Track death for victim's team
+        Team victimTeam = teamManager.getPlayerTeam(victim.getUniqueId());
+        if (victimTeam != null) {
+            victimTeam.addDeath();
+            leaderboards.recordDeath(victimTeam);
+            markDirty();
+        }
+
+        // Track kill for killer's team (PvP only)
+        if (killer == null) {
+            playerStats.recordDeath(victim, null, false);
+            combatLog.logDeath(victim, null, victimTeam, null, false);
+            return;
+        }
+
+        recordKillEvent();
+
+        Team killerTeam = teamManager.getPlayerTeam(killer.getUniqueId());
+
+        // Only count if not same team or friendly fire is enabled
+        boolean countKill = killerTeam == null || victimTeam == null ||
+                !killerTeam.equals(victimTeam) || killerTeam.isFriendlyFire();
+
+        // Repeated kills of the same victim within the anti-farming window don't count
+        // With statistics.pvp-only, a player who only caused the death indirectly (e.g. knocked
+        // the victim into lava) is logged as the killer but not credited with the kill
+        if (countKill && plugin.getSettings().statistics.pvpOnly && !dealtFinalBlow(victim, killer)) {
+            countKill = false;
+        }
+
+        if (countKill && !farmDetector.recordKill(killer.getUniqueId(), victim.getUniqueId(), System.currentTimeMillis())) {
+            countKill = false;
+
+            DebugManager debug = plugin.getDebugManager();
+            if (debug.isLoggingEvents()) debug.record("Kill farming suspected: " + killer.getName() + " -> " + victim.getName());
+        }
+
+        if (killerTeam != null && countKill) {
+            killerTeam.addKill();
+            leaderboards.recordKill(killerTeam);
+            markDirty();
+        }
+
+        playerStats.recordDeath(victim, killer, countKill);
+        combatLog.logDeath(victim, killer, victimTeam, killerTeam, killerTeam != null && countKill);
+    }
+
+    private static boolean dealtFinalBlow(Player victim, Player killer) {
+        EntityDamageEvent cause = victim.getLastDamageCause();
+        if (!(cause instanceof EntityDamageByEntityEvent)) {
+            return false;
+        }
+
+        Entity damager = ((EntityDamageByEntityEvent) cause).getDamager();
+        if (damager instanceof Projectile) {
+            return killer.equals(((Projectile) damager).getShooter());
+        }
+        return killer.equals(damager);
+    }
+
+    private void markDirty() {
+        dirty = true;
+        pendingEvents++;
+        // Kills and deaths are saved in batches, so menus showing them are not refreshed by a save
+        teamManager.requestMenuRefresh();
+    }
+
+    /**
+     * Persist pending statistics (runs on the flush timer)
+     */
+    public void flush() {
+        playerStats.save(true);
+        leaderboards.save(true);
+
+        if (!dirty) {
+            return;
+        }
+
+        teamManager.saveTeams();
+        dirty = false;
+        pendingEvents = 0;
+        totalFlushes++;
+    }
+
+    private void recordKillEvent() {
+        long second = System.currentTimeMillis() / 1000L;
+        int index = (int) (second % RATE_WINDOW);
+        if (bucketSeconds[index] != second) {
+            bucketSeconds[index] = second;
+            killBuckets[index] = 0;
+        }
+        killBuckets[index]++;
+    }
+
+    /**
+     * Average PvP kills per second over the last `seconds` seconds (max 60)
+     */
+    public double getKillsPerSecond(int seconds) {
+        seconds = Math.max(1, Math.min(seconds, RATE_WINDOW));
+        long now = System.currentTimeMillis() / 1000L;
+
+        int kills = 0;
+        for (int i = 0; i < RATE_WINDOW; i++) {
+            if (now - bucketSeconds[i] < seconds) {
+                kills += killBuckets[i];
+            }
+        }
+        return (double) kills / seconds;
+    }
+
+    public int getPendingEvents() {
+        return pendingEvents;
+    }
+
+    public long getTotalFlushes() {
+        return totalFlushes;
+    }
+
+    /**
+     * Stop the flush timer and write player stats. Team statistics are written by the final
+     * saveTeams() on disable.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        playerStats.save(false);
+        leaderboards.save(false);
+        combatLog.shutdown();
+    }
+}
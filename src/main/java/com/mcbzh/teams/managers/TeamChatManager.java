@@ -2,23 +2,54 @@ package com.mcbzh.teams.managers;
 
 import com.mcbzh.teams.TeamsPlugin;
 import com.mcbzh.teams.models.Team;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TeamChatManager {
+    private static final Component TEAM_CHAT_PREFIX = Component.text("[TC] ", NamedTextColor.AQUA);
+    private static final Component ALLY_CHAT_PREFIX = Component.text("[AC] ", NamedTextColor.LIGHT_PURPLE);
+    private static final Component NAME_SEPARATOR = Component.text(": ", NamedTextColor.GRAY);
+
     private final TeamsPlugin plugin;
     private final TeamManager teamManager;
     private final Set<UUID> teamChatEnabled;
+    private final Set<UUID> allyChatEnabled;
+    private final ChatRateLimiter rateLimiter;
+    private final ChatHistoryManager history;
+    private final ChatLogManager chatLog;
+
+    // Thread-safe snapshots so chat can be delivered straight from the async chat thread.
+    // Written on the main thread whenever membership or online state changes, read from any thread.
+    private final Map<UUID, UUID> onlineTeamIds;      // Online player -> team ID
+    private final Map<UUID, TeamChannel> channels;    // Team ID -> online team + alliance recipients
 
     public TeamChatManager(TeamsPlugin plugin) {
         this.plugin = plugin;
         this.teamManager = plugin.getTeamManager();
-        this.teamChatEnabled = new HashSet<>();
+        this.teamChatEnabled = ConcurrentHashMap.newKeySet();
+        this.allyChatEnabled = ConcurrentHashMap.newKeySet();
+        this.onlineTeamIds = new ConcurrentHashMap<>();
+        this.channels = new ConcurrentHashMap<>();
+        this.rateLimiter = new ChatRateLimiter(plugin);
+        this.history = new ChatHistoryManager(plugin);
+        this.chatLog = new ChatLogManager(plugin);
+
+        // Players already online (e.g. after /reload)
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refreshPlayer(player.getUniqueId());
+        }
     }
 
     /**
@@ -35,6 +66,7 @@ public class TeamChatManager {
             player.sendMessage(ChatColor.YELLOW + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         } else {
             teamChatEnabled.add(playerId);
+            allyChatEnabled.remove(playerId);
             player.sendMessage(ChatColor.YELLOW + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             player.sendMessage(ChatColor.GREEN + "✔ Team Chat Enabled");
             player.sendMessage(ChatColor.GRAY + "Your messages will only be visible to your team");
@@ -44,34 +76,305 @@ public class TeamChatManager {
     }
 
     /**
-     * Send a message to team chat
+     * Toggle ally chat mode for a player (turns team chat mode off)
+     */
+    public void toggleAllyChat(Player player) {
+        UUID playerId = player.getUniqueId();
+
+        if (allyChatEnabled.contains(playerId)) {
+            allyChatEnabled.remove(playerId);
+            player.sendMessage(ChatColor.YELLOW + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            player.sendMessage(ChatColor.RED + "✖ Ally Chat Disabled");
+            player.sendMessage(ChatColor.GRAY + "Your messages are now visible to everyone");
+            player.sendMessage(ChatColor.YELLOW + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        } else {
+            allyChatEnabled.add(playerId);
+            teamChatEnabled.remove(playerId);
+            player.sendMessage(ChatColor.YELLOW + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            player.sendMessage(ChatColor.GREEN + "✔ Ally Chat Enabled");
+            player.sendMessage(ChatColor.GRAY + "Your messages will be visible to your team and allies");
+            player.sendMessage(ChatColor.GRAY + "Use " + ChatColor.WHITE + "/ac" + ChatColor.GRAY + " to toggle back");
+            player.sendMessage(ChatColor.YELLOW + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        }
+    }
+
+    /**
+     * Send a plain-text message to team chat (used by /tc)
      */
     public void sendTeamMessage(Player sender, String message) {
-        Team team = teamManager.getPlayerTeam(sender.getUniqueId());
+        sendTeamMessage(sender, Component.text(message));
+    }
 
-        if (team == null) {
-            sender.sendMessage(ChatColor.RED + "You are not in a team!");
+    /**
+     * Send a message to team chat.
+     * Safe to call from the async chat thread: recipients come from the online snapshot.
+     * Falls back to the main thread only when the sender has no snapshot yet.
+     */
+    public void sendTeamMessage(Player sender, Component message) {
+        TeamChannel channel = resolveChannel(sender, () -> sendTeamMessage(sender, message));
+        if (channel == null) {
             return;
         }
 
-        // Format: [TC] [TAG] PlayerName: message
-        String formattedMessage = ChatColor.AQUA + "[TC] " +
-                team.getColoredTag() + " " +
-                ChatColor.WHITE + sender.getName() +
-                ChatColor.GRAY + ": " +
-                ChatColor.WHITE + message;
+        Team team = channel.team;
+
+        if (isRateLimited(ChatRateLimiter.Channel.TEAM, sender, team)) {
+            return;
+        }
+
+        // Format: [TC] [TAG] PlayerName: message (prefix component is cached on the team)
+        Component formattedMessage = Component.text()
+                .append(TEAM_CHAT_PREFIX)
+                .append(team.getChatPrefix(plugin.getSettings().teams.coloredNames))
+                .append(Component.text(sender.getName(), NamedTextColor.WHITE))
+                .append(NAME_SEPARATOR)
+                .append(message.colorIfAbsent(NamedTextColor.WHITE))
+                .build();
 
         // Send to all online team members
+        for (Player member : channel.recipients) {
+            member.sendMessage(formattedMessage);
+        }
+
+        history.record(team.getId(), sender.getName(), message);
+
+        // Log to the chat log file (and console if enabled)
+        chatLog.log("Team Chat", team.getName(), sender.getName(),
+                PlainTextComponentSerializer.plainText().serialize(message));
+    }
+
+    /**
+     * Send a plain-text message to ally chat (used by /ac)
+     */
+    public void sendAllyMessage(Player sender, String message) {
+        sendAllyMessage(sender, Component.text(message));
+    }
+
+    /**
+     * Send a message to the sender's team and all allied teams.
+     * Recipients are the precomputed alliance snapshot, so no member lists are walked here.
+     */
+    public void sendAllyMessage(Player sender, Component message) {
+        TeamChannel channel = resolveChannel(sender, () -> sendAllyMessage(sender, message));
+        if (channel == null) {
+            return;
+        }
+
+        Team team = channel.team;
+
+        if (!channel.hasAllies) {
+            sender.sendMessage(ChatColor.RED + "Your team has no allies!");
+            return;
+        }
+
+        if (isRateLimited(ChatRateLimiter.Channel.ALLY, sender, team)) {
+            return;
+        }
+
+        // Format: [AC] [TAG] PlayerName: message
+        Component formattedMessage = Component.text()
+                .append(ALLY_CHAT_PREFIX)
+                .append(team.getChatPrefix(plugin.getSettings().teams.coloredNames))
+                .append(Component.text(sender.getName(), NamedTextColor.WHITE))
+                .append(NAME_SEPARATOR)
+                .append(message.colorIfAbsent(NamedTextColor.WHITE))
+                .build();
+
+        for (Player member : channel.allianceRecipients) {
+            member.sendMessage(formattedMessage);
+        }
+
+        // Log to the chat log file (and console if enabled)
+        chatLog.log("Ally Chat", team.getName(), sender.getName(),
+                PlainTextComponentSerializer.plainText().serialize(message));
+    }
+
+    /**
+     * Resolve the sender's channel from the snapshot. Off the main thread a missing snapshot
+     * (e.g. joined this tick) re-runs the send on the main thread against live team data.
+     */
+    private TeamChannel resolveChannel(Player sender, Runnable retryOnMainThread) {
+        TeamChannel channel = getChannel(sender.getUniqueId());
+        if (channel != null) {
+            return channel;
+        }
+
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, retryOnMainThread);
+            return null;
+        }
+
+        refreshPlayer(sender.getUniqueId());
+        channel = getChannel(sender.getUniqueId());
+
+        if (channel == null) {
+            sender.sendMessage(ChatColor.RED + "You are not in a team!");
+        }
+        return channel;
+    }
+
+    /**
+     * Per-player / per-team token buckets (lock-free, safe on the async chat thread)
+     */
+    private boolean isRateLimited(ChatRateLimiter.Channel chatChannel, Player sender, Team team) {
+        ChatRateLimiter.Result limit = rateLimiter.tryAcquire(chatChannel, sender.getUniqueId(), team.getId());
+        if (limit == ChatRateLimiter.Result.ALLOWED) {
+            return false;
+        }
+
+        if (rateLimiter.shouldWarn(chatChannel, sender.getUniqueId())) {
+            sender.sendMessage(limit == ChatRateLimiter.Result.TEAM_LIMITED
+                    ? ChatColor.RED + "Your team is sending messages too quickly. Please wait a moment."
+                    : ChatColor.RED + "You are sending messages too quickly. Please wait a moment.");
+        }
+        return true;
+    }
+
+    /**
+     * Team of an online player, read from the thread-safe snapshot (null if none)
+     */
+    public Team getOnlineTeam(UUID playerId) {
+        TeamChannel channel = getChannel(playerId);
+        return channel != null ? channel.team : null;
+    }
+
+    private TeamChannel getChannel(UUID playerId) {
+        UUID teamId = onlineTeamIds.get(playerId);
+        return teamId != null ? channels.get(teamId) : null;
+    }
+
+    /**
+     * Re-resolve a player's team and update the recipient snapshots (main thread).
+     * Called on join and whenever the player's team membership changes.
+     */
+    public void refreshPlayer(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        Team team = player != null ? teamManager.getPlayerTeam(playerId) : null;
+        UUID newTeamId = team != null ? team.getId() : null;
+
+        UUID oldTeamId = newTeamId != null ? onlineTeamIds.put(playerId, newTeamId) : onlineTeamIds.remove(playerId);
+
+        if (oldTeamId != null && !oldTeamId.equals(newTeamId)) {
+            rebuildChannel(oldTeamId);
+        }
+        if (newTeamId != null) {
+            rebuildChannel(newTeamId);
+        }
+    }
+
+    /**
+     * Drop a player from the recipient snapshots (on quit)
+     */
+    public void removeOnlinePlayer(UUID playerId) {
+        rateLimiter.removePlayer(playerId);
+
+        UUID teamId = onlineTeamIds.remove(playerId);
+        if (teamId != null) {
+            rebuildChannel(teamId);
+        }
+    }
+
+    /**
+     * Rebuild both teams' alliance recipient snapshots after an alliance is formed or broken
+     */
+    public void refreshAlliance(Team first, Team second) {
+        rebuildAllianceRecipients(first.getId());
+        rebuildAllianceRecipients(second.getId());
+    }
+
+    private void rebuildChannel(UUID teamId) {
+        Team team = teamManager.getTeam(teamId);
+        if (team == null) {
+            channels.remove(teamId);
+            rateLimiter.removeTeam(teamId);
+            history.removeTeam(teamId);
+            return;
+        }
+
+        List<Player> recipients = new ArrayList<>();
         for (UUID memberId : team.getMembers()) {
             Player member = Bukkit.getPlayer(memberId);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(formattedMessage);
+            if (member != null && teamId.equals(onlineTeamIds.get(memberId))) {
+                recipients.add(member);
+            }
+        }
+
+        if (recipients.isEmpty()) {
+            channels.remove(teamId);
+            rateLimiter.removeTeam(teamId);
+        } else {
+            List<Player> teamRecipients = Collections.unmodifiableList(recipients);
+            channels.put(teamId, new TeamChannel(team, teamRecipients, teamRecipients, false));
+            rebuildAllianceRecipients(teamId);
+        }
+
+        // This team's online members are part of every ally's alliance snapshot
+        for (UUID allyId : team.getAllies()) {
+            rebuildAllianceRecipients(allyId);
+        }
+    }
+
+    /**
+     * Recompute a team's alliance recipients (own online members + online members of allies)
+     */
+    private void rebuildAllianceRecipients(UUID teamId) {
+        TeamChannel channel = channels.get(teamId);
+        if (channel == null) {
+            return;
+        }
+
+        Set<UUID> allies = channel.team.getAllies();
+        List<Player> recipients = new ArrayList<>(channel.recipients);
+        for (UUID allyId : allies) {
+            TeamChannel allyChannel = channels.get(allyId);
+            if (allyChannel != null) {
+                recipients.addAll(allyChannel.recipients);
             }
         }
 
-        // Log to console
-        plugin.getLogger().info("[Team Chat] " + team.getName() + " | " +
-                sender.getName() + ": " + message);
+        channels.put(teamId, new TeamChannel(channel.team, channel.recipients,
+                Collections.unmodifiableList(recipients), !allies.isEmpty()));
+    }
+
+    /**
+     * Show a page of the player's team chat history (/tc history)
+     */
+    public void sendHistory(Player player, int page) {
+        Team team = teamManager.getPlayerTeam(player.getUniqueId());
+        if (team == null) {
+            player.sendMessage(ChatColor.RED + "You are not in a team!");
+            return;
+        }
+
+        if (!history.isEnabled()) {
+            player.sendMessage(ChatColor.RED + "Team chat history is disabled on this server.");
+            return;
+        }
+
+        history.sendHistory(player, team.getId(), page);
+    }
+
+    /**
+     * Replay recent team chat to a player who just joined
+     */
+    public void replayHistory(Player player) {
+        UUID teamId = onlineTeamIds.get(player.getUniqueId());
+        if (teamId != null) {
+            history.replay(player, teamId);
+        }
+    }
+
+    public ChatRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public ChatHistoryManager getHistory() {
+        return history;
+    }
+
+    public void shutdown() {
+        history.shutdown();
+        chatLog.shutdown();
     }
 
     /**
@@ -82,9 +385,34 @@ public class TeamChatManager {
     }
 
     /**
-     * Remove player from team chat mode (on quit)
+     * Check if player has ally chat enabled
+     */
+    public boolean isAllyChatEnabled(UUID playerId) {
+        return allyChatEnabled.contains(playerId);
+    }
+
+    /**
+     * Remove player from team and ally chat mode (on quit)
      */
     public void removePlayer(UUID playerId) {
         teamChatEnabled.remove(playerId);
+        allyChatEnabled.remove(playerId);
+    }
+
+    /**
+     * Immutable view of a team's online members and its alliance, replaced wholesale on change
+     */
+    private static final class TeamChannel {
+        private final Team team;
+        private final List<Player> recipients;
+        private final List<Player> allianceRecipients;
+        private final boolean hasAllies;
+
+        private TeamChannel(Team team, List<Player> recipients, List<Player> allianceRecipients, boolean hasAllies) {
+            this.team = team;
+            this.recipients = recipients;
+            this.allianceRecipients = allianceRecipients;
+            this.hasAllies = hasAllies;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.models.Team;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted views of the loaded teams for the team browser.
+ *
+ * Every sort order (and a by-name order for search) is kept as an array that is only re-sorted
+ * when team data changed since it was built, so browsing and paging never sort. A rebuild sorts a
+ * copy of the previous array, which is already nearly in order, and arrays handed out are never
+ * modified again - callers may keep them as a stable snapshot.
+ */
+public class TeamIndex {
+
+    public enum SortMode {
+        KILLS("Most kills", Comparator.comparingInt(Team::getTotalKills).reversed()),
+        KD("Best K/D", Comparator.comparingDouble(Team::getKDRatio).reversed()),
+        MEMBERS("Most members", Comparator.comparingInt(Team::getMemberCount).reversed()),
+        NEWEST("Newest", Comparator.comparingLong(Team::getCreatedAt).reversed()),
+        OPEN_SLOTS("Most open slots", Comparator.comparingInt(
+                (Team team) -> team.getMaxMembers() - team.getMemberCount()).reversed());
+
+        private final String displayName;
+        private final Comparator<Team> comparator;
+
+        SortMode(String displayName, Comparator<Team> primary) {
+            this.displayName = displayName;
+            // Ties fall back to name and ID so the order is total and never shuffles between rebuilds
+            this.comparator = primary.thenComparing(BY_NAME);
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public Comparator<Team> getComparator() {
+            return comparator;
+        }
+
+        public SortMode next() {
+            SortMode[] modes = values();
+            return modes[(ordinal() + 1) % modes.length];
+        }
+    }
+
+    private static final Comparator<Team> BY_NAME = Comparator
+            .comparing((Team team) -> team.getName().toLowerCase())
+            .thenComparing(Team::getId);
+
+    private final TeamManager teamManager;
+
+    // One array per sort mode plus the data version it was built for
+    private final Team[][] sorted = new Team[SortMode.values().length][];
+    private final long[] sortedVersions = new long[SortMode.values().length];
+
+    // Teams by lower-case name, with the names alongside for prefix search
+    private Team[] byName;
+    private String[] names;
+    private long byNameVersion;
+
+    public TeamIndex(TeamManager teamManager) {
+        this.teamManager = teamManager;
+    }
+
+    /**
+     * All teams in the given order. The returned array must not be modified.
+     */
+    public Team[] getSorted(SortMode mode) {
+        long version = teamManager.getTeamDataVersion();
+        int index = mode.ordinal();
+        if (sorted[index] == null || sortedVersions[index] != version) {
+            sorted[index] = rebuild(sorted[index], mode.getComparator());
+            sortedVersions[index] = version;
+        }
+        return sorted[index];
+    }
+
+    /**
+     * Teams whose name starts with the given text (case-insensitive), in name order
+     */
+    public List<Team> searchByName(String prefix) {
+        long version = teamManager.getTeamDataVersion();
+        if (byName == null || byNameVersion != version) {
+            byName = rebuild(byName, BY_NAME);
+            names = new String[byName.length];
+            for (int i = 0; i < byName.length; i++) {
+                names[i] = byName[i].getName().toLowerCase();
+            }
+            byNameVersion = version;
+        }
+
+        String key = prefix.toLowerCase();
+        List<Team> matches = new ArrayList<>();
+        for (int i = lowerBound(names, key); i < names.length && names[i].startsWith(key); i++) {
+            matches.add(byName[i]);
+        }
+        return matches;
+    }
+
+    private Team[] rebuild(Team[] previous, Comparator<Team> comparator) {
+        Team[] teams;
+        if (previous != null && previous.length == teamManager.getTeamCount() && allLoaded(previous)) {
+            teams = previous.clone(); // Same teams, new stats - nearly sorted already
+        } else {
+            teams = teamManager.getAllTeams().toArray(new Team[0]);
+        }
+        Arrays.sort(teams, comparator);
+        return teams;
+    }
+
+    private boolean allLoaded(Team[] teams) {
+        for (Team team : teams) {
+            if (teamManager.getTeam(team.getId()) != team) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lowerBound(String[] values, String key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
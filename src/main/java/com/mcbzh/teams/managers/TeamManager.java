@@ -1,7 +1,9 @@
 package com.mcbzh.teams.managers;
 
 import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.models.PlayerSession;
 import com.mcbzh.teams.models.Team;
+import com.mcbzh.teams.util.SlotMatrix;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.configuration.ConfigurationSection;
@@ -20,6 +22,23 @@ public class TeamManager {
     private final Map<UUID, UUID> playerTeams;
     private File teamsFile;
     private FileConfiguration teamsConfig;
+    private int nextScoreboardId = 1;
+
+    // Bumped whenever a team is created or deleted, so team list menus know to refresh
+    private int teamListVersion;
+
+    // Dense team slots: slot -> team, reused after a team is deleted so the array stays small
+    private Team[] teamSlots = new Team[16];
+    private final BitSet usedSlots = new BitSet();
+
+    // Alliances between team slots, mirrored from each team's ally set for constant-time checks
+    private final SlotMatrix allianceMatrix = new SlotMatrix(16);
+
+    // Online players only; each session caches the player's team slot for the combat fast path
+    private final Map<UUID, PlayerSession> sessions = new HashMap<>();
+
+    // Sorted team orders for the team browser
+    private final TeamIndex teamIndex = new TeamIndex(this);
 
     public TeamManager(TeamsPlugin plugin) {
         this.plugin = plugin;
@@ -27,6 +46,11 @@ public class TeamManager {
         this.playerTeams = new HashMap<>();
         setupTeamsFile();
         loadTeams();
+
+        // Players already online after a reload never fire a join event
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            openSession(player.getUniqueId());
+        }
     }
 
     private void setupTeamsFile() {
@@ -52,11 +76,21 @@ public class TeamManager {
         }
 
         Team team = new Team(name, leader.getUniqueId());
+        team.setScoreboardId(nextScoreboardId++);
+        team.setMaxMembers(plugin.getSettings().teams.defaultMaxMembers);
+        team.setFriendlyFire(plugin.getSettings().friendlyFire.defaultEnabled);
         teams.put(team.getId(), team);
+        assignSlot(team);
         playerTeams.put(leader.getUniqueId(), team.getId());
+        teamListVersion++;
 
         saveTeams();
 
+        notifyMembershipChanged(leader.getUniqueId());
+
+        DebugManager debug = plugin.getDebugManager();
+        if (debug.isLoggingEvents()) debug.record("Team created: " + name + " by " + leader.getName());
+
         return team;
     }
 
@@ -71,13 +105,40 @@ public class TeamManager {
             playerTeams.remove(member);
         }
 
+        // Break every alliance so allies don't keep a dangling team ID
+        List<Team> formerAllies = new ArrayList<>();
+        for (UUID allyId : team.getAllies()) {
+            Team ally = teams.get(allyId);
+            if (ally != null && ally.removeAlly(teamId)) {
+                formerAllies.add(ally);
+            }
+        }
+
         teams.remove(teamId);
+        releaseSlot(team);
+        teamListVersion++;
+
+        for (Team ally : formerAllies) {
+            notifyAllianceChanged(team, ally);
+        }
+
+        for (UUID member : team.getMembers()) {
+            notifyMembershipChanged(member);
+        }
+
+        DebugManager debug = plugin.getDebugManager();
+        if (debug.isLoggingEvents()) debug.record("Team deleted: " + team.getName());
 
         // Remove team stash
         if (plugin.getStashManager() != null) {
             plugin.getStashManager().removeStash(teamId);
         }
 
+        // Remove team statistics
+        if (plugin.getStatisticsManager() != null) {
+            plugin.getStatisticsManager().getPlayerStats().removeTeam(teamId);
+        }
+
         saveTeams();
 
         return true;
@@ -111,6 +172,10 @@ public class TeamManager {
         if (team.addMember(playerId)) {
             playerTeams.put(playerId, team.getId());
             saveTeams();
+            notifyMembershipChanged(playerId);
+
+            DebugManager debug = plugin.getDebugManager();
+            if (debug.isLoggingEvents()) debug.record("Player " + playerId + " joined team " + team.getName());
             return true;
         }
 
@@ -142,14 +207,177 @@ public class TeamManager {
         team.removeMember(playerId);
         playerTeams.remove(playerId);
         saveTeams();
+        notifyMembershipChanged(playerId);
+
+        DebugManager debug = plugin.getDebugManager();
+        if (debug.isLoggingEvents()) debug.record("Player " + playerId + " left team " + team.getName());
+
+        return true;
+    }
+
+    /**
+     * Kick a member (online or offline) and tell the kicker, the target and the team.
+     * Permission checks are up to the caller.
+     */
+    public void kickMember(Player kicker, Team team, UUID targetId) {
+        String targetName = plugin.getProfileCache().getDisplayName(targetId);
+        removePlayerFromTeam(targetId, team);
+
+        Player target = Bukkit.getPlayer(targetId);
+        if (target != null) {
+            // Update nametag for kicked player
+            if (plugin.getNametagManager() != null) {
+                plugin.getNametagManager().updatePlayer(target);
+            }
+            target.sendMessage(ChatColor.RED + "You were kicked from " + team.getColoredName());
+        }
 
+        kicker.sendMessage(ChatColor.GREEN + "Kicked " + targetName + " from the team!");
+        broadcastToTeam(team, plugin.getSettings().messages.get("player-kicked", "player", targetName));
+    }
+
+    /**
+     * Promote a member (online or offline) to moderator. Permission checks are up to the caller.
+     */
+    public boolean promoteMember(Player promoter, Team team, UUID targetId) {
+        String targetName = plugin.getProfileCache().getDisplayName(targetId);
+
+        if (!team.addModerator(targetId)) {
+            promoter.sendMessage(ChatColor.RED + "Failed to promote player!");
+            return false;
+        }
+
+        promoter.sendMessage(ChatColor.GREEN + "Promoted " + targetName + " to moderator!");
+        Player target = Bukkit.getPlayer(targetId);
+        if (target != null) {
+            target.sendMessage(ChatColor.GREEN + "You were promoted to moderator in " + team.getColoredName() + "!");
+        }
+        broadcastToTeam(team, ChatColor.YELLOW + targetName + " was promoted to moderator!");
         return true;
     }
 
+    /**
+     * Demote a moderator (online or offline). Permission checks are up to the caller.
+     */
+    public boolean demoteMember(Player demoter, Team team, UUID targetId) {
+        String targetName = plugin.getProfileCache().getDisplayName(targetId);
+
+        if (!team.removeModerator(targetId)) {
+            demoter.sendMessage(ChatColor.RED + "That player is not a moderator!");
+            return false;
+        }
+
+        demoter.sendMessage(ChatColor.GREEN + "Demoted " + targetName + " from moderator!");
+        Player target = Bukkit.getPlayer(targetId);
+        if (target != null) {
+            target.sendMessage(ChatColor.YELLOW + "You were demoted in " + team.getColoredName());
+        }
+        return true;
+    }
+
+    /**
+     * Find a member of the team by name, online or offline (names come from the profile cache)
+     */
+    public UUID findMemberByName(Team team, String name) {
+        for (UUID memberId : team.getMembers()) {
+            if (name.equalsIgnoreCase(plugin.getProfileCache().getName(memberId))) {
+                return memberId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Form a mutual alliance between two teams
+     */
+    public void formAlliance(Team first, Team second) {
+        first.addAlly(second.getId());
+        second.addAlly(first.getId());
+        allianceMatrix.set(first.getSlot(), second.getSlot(), true);
+        saveTeams();
+        notifyAllianceChanged(first, second);
+    }
+
+    /**
+     * Break a mutual alliance between two teams
+     */
+    public void breakAlliance(Team first, Team second) {
+        first.removeAlly(second.getId());
+        second.removeAlly(first.getId());
+        allianceMatrix.set(first.getSlot(), second.getSlot(), false);
+        saveTeams();
+        notifyAllianceChanged(first, second);
+    }
+
+    /**
+     * Let dependent caches (ally chat recipients, relational nametags) pick up an alliance change
+     */
+    private void notifyAllianceChanged(Team first, Team second) {
+        if (plugin.getChatManager() != null) {
+            plugin.getChatManager().refreshAlliance(first, second);
+        }
+        if (plugin.getNametagManager() != null) {
+            plugin.getNametagManager().updateAlliance(first, second);
+        }
+    }
+
+    /**
+     * Let dependent caches (session team slot, team chat recipients) pick up a player's new team
+     */
+    private void notifyMembershipChanged(UUID playerId) {
+        PlayerSession session = sessions.get(playerId);
+        if (session != null) {
+            session.setTeamSlot(slotOf(getPlayerTeam(playerId)));
+        }
+
+        if (plugin.getChatManager() != null) {
+            plugin.getChatManager().refreshPlayer(playerId);
+        }
+        requestMenuRefresh();
+    }
+
+    /**
+     * Let open menus pick up changed team data. Menus only refresh on clicks and the optional
+     * gui.auto-refresh-seconds timer otherwise, so every mutation that is saved asks for a check.
+     */
+    public void requestMenuRefresh() {
+        // The tracker is created after the teams are loaded
+        if (plugin.getMenuTracker() != null) {
+            plugin.getMenuTracker().requestRefresh();
+        }
+    }
+
     public List<Team> getAllTeams() {
         return new ArrayList<>(teams.values());
     }
 
+    public int getTeamCount() {
+        return teams.size();
+    }
+
+    /**
+     * Changes whenever a team is created or deleted
+     */
+    public int getTeamListVersion() {
+        return teamListVersion;
+    }
+
+    /**
+     * Changes whenever any team changes or a team is created or deleted.
+     * Team versions only grow, so their sum moves on every change.
+     */
+    public long getTeamDataVersion() {
+        long sum = 0;
+        for (Team team : teams.values()) {
+            sum += team.getVersion();
+        }
+        return ((long) teamListVersion << 32) + sum;
+    }
+
+    public TeamIndex getTeamIndex() {
+        return teamIndex;
+    }
+
     public List<Team> getTopTeamsByKills(int limit) {
         return teams.values().stream()
                 .sorted(Comparator.comparingInt(Team::getTotalKills).reversed())
@@ -164,6 +392,76 @@ public class TeamManager {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Start tracking an online player. Called on join.
+     */
+    public PlayerSession openSession(UUID playerId) {
+        PlayerSession session = new PlayerSession(playerId);
+        session.setTeamSlot(slotOf(getPlayerTeam(playerId)));
+        sessions.put(playerId, session);
+        return session;
+    }
+
+    /**
+     * Stop tracking a player. Called on quit.
+     */
+    public void closeSession(UUID playerId) {
+        sessions.remove(playerId);
+    }
+
+    /**
+     * Session of an online player, or null if the player is offline
+     */
+    public PlayerSession getSession(UUID playerId) {
+        return sessions.get(playerId);
+    }
+
+    /**
+     * Team occupying a dense slot, or null for an empty or invalid slot
+     */
+    public Team getTeamBySlot(int slot) {
+        return slot >= 0 && slot < teamSlots.length ? teamSlots[slot] : null;
+    }
+
+    /**
+     * Whether the teams in two slots are allied. Same slot is not an alliance.
+     */
+    public boolean areSlotsAllied(int first, int second) {
+        return allianceMatrix.get(first, second);
+    }
+
+    /**
+     * Size of the slot range in use; every team slot is below this value
+     */
+    public int getSlotCapacity() {
+        return teamSlots.length;
+    }
+
+    private void assignSlot(Team team) {
+        int slot = usedSlots.nextClearBit(0);
+        if (slot >= teamSlots.length) {
+            teamSlots = Arrays.copyOf(teamSlots, teamSlots.length * 2);
+        }
+        usedSlots.set(slot);
+        teamSlots[slot] = team;
+        allianceMatrix.ensureCapacity(teamSlots.length);
+        team.setSlot(slot);
+    }
+
+    private void releaseSlot(Team team) {
+        int slot = team.getSlot();
+        if (slot >= 0 && teamSlots[slot] == team) {
+            teamSlots[slot] = null;
+            usedSlots.clear(slot);
+            allianceMatrix.clearSlot(slot);
+        }
+        team.setSlot(PlayerSession.NO_TEAM);
+    }
+
+    private static int slotOf(Team team) {
+        return team != null ? team.getSlot() : PlayerSession.NO_TEAM;
+    }
+
     public boolean areTeammates(UUID player1, UUID player2) {
         Team team1 = getPlayerTeam(player1);
         Team team2 = getPlayerTeam(player2);
@@ -189,6 +487,8 @@ public class TeamManager {
             plugin.getLogger().severe("Could not save teams.yml!");
             e.printStackTrace();
         }
+
+        requestMenuRefresh();
     }
 
     public void loadTeams() {
@@ -213,6 +513,7 @@ public class TeamManager {
             try {
                 Team team = Team.deserialize(data);
                 teams.put(team.getId(), team);
+                assignSlot(team);
 
                 for (UUID member : team.getMembers()) {
                     playerTeams.put(member, team.getId());
@@ -223,9 +524,54 @@ public class TeamManager {
             }
         }
 
+        assignScoreboardIds();
+        rebuildAllianceMatrix();
+
         plugin.getLogger().info("Loaded " + teams.size() + " teams");
     }
 
+    /**
+     * Mirror every loaded ally set into the slot matrix
+     */
+    private void rebuildAllianceMatrix() {
+        for (Team team : teams.values()) {
+            for (UUID allyId : team.getAllies()) {
+                Team ally = teams.get(allyId);
+                if (ally != null && ally.isAlly(team.getId())) {
+                    allianceMatrix.set(team.getSlot(), ally.getSlot(), true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Give every team a unique scoreboard ID (teams saved by older versions have none)
+     */
+    private void assignScoreboardIds() {
+        Set<Integer> usedIds = new HashSet<>();
+        List<Team> needsId = new ArrayList<>();
+
+        for (Team team : teams.values()) {
+            if (team.getScoreboardId() <= 0 || !usedIds.add(team.getScoreboardId())) {
+                needsId.add(team);
+            }
+        }
+
+        nextScoreboardId = usedIds.stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+
+        if (needsId.isEmpty()) {
+            return;
+        }
+
+        // Deterministic order so the same teams get the same IDs on every server
+        needsId.sort(Comparator.comparing(team -> team.getId().toString()));
+        for (Team team : needsId) {
+            team.setScoreboardId(nextScoreboardId++);
+        }
+
+        saveTeams();
+    }
+
     /**
      * Check if two players are allies (either teammates or on allied teams)
      */
@@ -294,8 +640,7 @@ public class TeamManager {
         sb.append(ChatColor.GRAY).append("Description: ").append(ChatColor.WHITE).append(team.getDescription()).append("\n");
         sb.append(ChatColor.GRAY).append("Leader: ").append(ChatColor.WHITE);
 
-        Player leader = Bukkit.getPlayer(team.getLeader());
-        sb.append(leader != null ? leader.getName() : "Unknown").append("\n");
+        sb.append(plugin.getProfileCache().getDisplayName(team.getLeader())).append("\n");
 
         sb.append(ChatColor.GRAY).append("Members: ").append(ChatColor.WHITE)
                 .append(team.getMemberCount()).append("/").append(team.getMaxMembers()).append("\n");
@@ -319,6 +664,14 @@ public class TeamManager {
         sb.append(ChatColor.WHITE).append("  Deaths: ").append(ChatColor.RED).append(team.getTotalDeaths()).append("\n");
         sb.append(ChatColor.WHITE).append("  K/D Ratio: ").append(ChatColor.AQUA)
                 .append(String.format("%.2f", team.getKDRatio())).append("\n");
+        if (plugin.getStatisticsManager() != null) {
+            PlayerStatsManager playerStats = plugin.getStatisticsManager().getPlayerStats();
+            sb.append(ChatColor.WHITE).append("  Assists: ").append(ChatColor.YELLOW)
+                    .append(playerStats.getTeamStat(team.getId(), PlayerStatsManager.Stat.ASSISTS)).append("\n");
+            sb.append(ChatColor.WHITE).append("  Damage Dealt: ").append(ChatColor.GOLD)
+                    .append(playerStats.format(PlayerStatsManager.Stat.DAMAGE,
+                            playerStats.getTeamStat(team.getId(), PlayerStatsManager.Stat.DAMAGE))).append("\n");
+        }
 
         sb.append(ChatColor.GRAY).append("Settings:\n");
         sb.append(ChatColor.WHITE).append("  Friendly Fire: ")
@@ -0,0 +1,85 @@
+package com.mcbzh.teams.managers;
+
+import com.mcbzh.teams.TeamsPlugin;
+import com.mcbzh.teams.config.PluginSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Damage policy per loaded world, resolved from world names once so the damage handler
+ * only does an identity lookup. Rebuilt on reload and kept current by world load/unload events.
+ * Main thread only.
+ *
+ * Configs written before protected-worlds was honoured list the default world names. If none of
+ * the listed names is loaded (e.g. a custom level-name), every world stays protected as it was
+ * before, with a warning; otherwise each loaded world left out of the list is logged once.
+ */
+public class WorldPolicyManager {
+    private final TeamsPlugin plugin;
+    private final Map<World, PluginSettings.WorldPolicy> policies = new IdentityHashMap<>();
+    // Names already warned about, so worlds that load and unload repeatedly are logged once
+    private final Set<String> warnedWorlds = new HashSet<>();
+    // Set when protected-worlds names none of the loaded worlds
+    private boolean protectUnlisted;
+
+    public WorldPolicyManager(TeamsPlugin plugin) {
+        this.plugin = plugin;
+        rebuild();
+    }
+
+    /**
+     * Re-resolve every loaded world against the current settings
+     */
+    public void rebuild() {
+        policies.clear();
+        warnedWorlds.clear();
+
+        PluginSettings.FriendlyFireSettings settings = plugin.getSettings().friendlyFire;
+        List<World> worlds = Bukkit.getWorlds();
+        protectUnlisted = !settings.protectedWorlds.isEmpty();
+        for (World world : worlds) {
+            if (settings.protectedWorlds.contains(world.getName())) {
+                protectUnlisted = false;
+                break;
+            }
+        }
+        if (protectUnlisted) {
+            plugin.getLogger().warning("None of friendly-fire.protected-worlds " + settings.protectedWorlds +
+                    " is loaded, so team damage stays blocked in every world. List your world names to limit it.");
+        }
+
+        for (World world : worlds) {
+            addWorld(world);
+        }
+    }
+
+    public void addWorld(World world) {
+        PluginSettings.FriendlyFireSettings settings = plugin.getSettings().friendlyFire;
+        String name = world.getName();
+        if (!protectUnlisted && !settings.isListed(name) && !settings.hasOverride(name) && warnedWorlds.add(name)) {
+            plugin.getLogger().warning("World " + name + " is not in friendly-fire.protected-worlds, " +
+                    "so team damage is allowed there");
+        }
+        policies.put(world, settings.getWorldPolicy(name, protectUnlisted));
+    }
+
+    public void removeWorld(World world) {
+        policies.remove(world);
+    }
+
+    public PluginSettings.WorldPolicy getPolicy(World world) {
+        PluginSettings.WorldPolicy policy = policies.get(world);
+        if (policy == null) {
+            // A world we were not told about - resolve it once
+            addWorld(world);
+            policy = policies.get(world);
+        }
+        return policy;
+    }
+}
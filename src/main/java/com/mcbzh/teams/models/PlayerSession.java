@@ -0,0 +1,44 @@
+package com.mcbzh.teams.models;
+
+import java.util.UUID;
+
+/**
+ * Per-player state kept only while the player is online.
+ * Everything here is derived from team data and rebuilt on join, so nothing is saved.
+ */
+public class PlayerSession {
+    /** Slot value for players without a team */
+    public static final int NO_TEAM = -1;
+
+    private final UUID playerId;
+
+    // Dense slot of the player's team (see TeamManager#getTeamBySlot) - main thread only
+    private int teamSlot = NO_TEAM;
+
+    // Earliest time the next "cannot hurt your teammate" message may be shown
+    private long nextFriendlyFireMessage;
+
+    public PlayerSession(UUID playerId) {
+        this.playerId = playerId;
+    }
+
+    public UUID getPlayerId() { return playerId; }
+
+    public int getTeamSlot() { return teamSlot; }
+    public void setTeamSlot(int teamSlot) { this.teamSlot = teamSlot; }
+
+    public boolean hasTeam() {
+        return teamSlot != NO_TEAM;
+    }
+
+    /**
+     * Whether a blocked-hit message may be shown now; if so, the next one is held back for cooldownMillis
+     */
+    public boolean tryFriendlyFireMessage(long now, long cooldownMillis) {
+        if (now < nextFriendlyFireMessage) {
+            return false;
+        }
+        nextFriendlyFireMessage = now + cooldownMillis;
+        return true;
+    }
+}
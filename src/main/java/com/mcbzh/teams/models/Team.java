@@ -1,5 +1,7 @@
 package com.mcbzh.teams.models;
 
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.ChatColor;
 
 import java.util.*;
@@ -18,9 +20,27 @@ public class Team {
     private String description;
     private boolean friendlyFire;
     private boolean allowAlliances;
-    private final long createdAt;
+    private long createdAt;
     private int maxMembers;
 
+    // Unique short ID used to build a collision-free scoreboard team name
+    private int scoreboardId;
+
+    // Dense runtime index assigned by TeamManager while the team is loaded - not saved
+    private int slot = -1;
+
+    // Bumped on every change to data shown in GUIs, so rendered items can be cached per version
+    private int version;
+
+    // Render cache - rebuilt lazily after name, display name, tag or color changes.
+    // Cached values are immutable, so the chat thread may read them without locking.
+    private volatile String scoreboardKey;
+    private volatile String nametagLabel;
+    private volatile String nametagPrefix;
+    private volatile String coloredTag;
+    private volatile Component chatPrefix;
+    private volatile Component plainChatPrefix;
+
     // Statistics
     private int totalKills;
     private int totalDeaths;
@@ -57,11 +77,11 @@ public class Team {
     // Ally Management
     public boolean addAlly(UUID teamId) {
         allyInvites.remove(teamId);
-        return allies.add(teamId);
+        return changed(allies.add(teamId));
     }
 
     public boolean removeAlly(UUID teamId) {
-        return allies.remove(teamId);
+        return changed(allies.remove(teamId));
     }
 
     public boolean isAlly(UUID teamId) {
@@ -100,16 +120,125 @@ public class Team {
     // Existing getters and setters
     public UUID getId() { return id; }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) {
+        this.name = name;
+        invalidateRenderCache();
+    }
 
     public String getDisplayName() { return displayName; }
-    public void setDisplayName(String displayName) { this.displayName = displayName; }
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+        invalidateRenderCache();
+    }
 
     public String getTag() { return tag; }
-    public void setTag(String tag) { this.tag = tag; }
+    public void setTag(String tag) {
+        this.tag = tag;
+        invalidateRenderCache();
+    }
 
     public ChatColor getColor() { return color; }
-    public void setColor(ChatColor color) { this.color = color; }
+    public void setColor(ChatColor color) {
+        this.color = color;
+        invalidateRenderCache();
+    }
+
+    public int getScoreboardId() { return scoreboardId; }
+    public void setScoreboardId(int scoreboardId) {
+        this.scoreboardId = scoreboardId;
+        invalidateRenderCache();
+    }
+
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
+    /**
+     * Version of the displayed team data; changes whenever anything a GUI shows changes
+     */
+    public int getVersion() { return version; }
+
+    /**
+     * Bump the version after changing data this class can't see, e.g. ally permissions
+     */
+    public void markChanged() {
+        version++;
+    }
+
+    private boolean changed(boolean changed) {
+        if (changed) {
+            version++;
+        }
+        return changed;
+    }
+
+    private void invalidateRenderCache() {
+        version++;
+        scoreboardKey = null;
+        nametagLabel = null;
+        nametagPrefix = null;
+        coloredTag = null;
+        chatPrefix = null;
+        plainChatPrefix = null;
+    }
+
+    /**
+     * Scoreboard team name for this team (max 16 chars).
+     * Format: color ordinal (for tablist sorting) + "_" + base36 scoreboard ID + "_" + sanitized name.
+     * The scoreboard ID is unique per team and delimited, so two teams never share a key.
+     */
+    public String getScoreboardKey() {
+        String key = scoreboardKey;
+        if (key == null) {
+            StringBuilder sb = new StringBuilder(16);
+            int ordinal = color.ordinal();
+            sb.append((char) ('0' + ordinal / 10)).append((char) ('0' + ordinal % 10));
+            sb.append('_').append(Integer.toString(scoreboardId, 36)).append('_');
+
+            for (int i = 0; i < name.length() && sb.length() < 16; i++) {
+                char c = name.charAt(i);
+                if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                    sb.append(c);
+                } else if (c >= 'A' && c <= 'Z') {
+                    sb.append((char) (c + ('a' - 'A')));
+                }
+            }
+
+            key = sb.toString();
+            scoreboardKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Uncolored nametag label: [TAG], or [display name] when no tag is set (text max 9 chars)
+     */
+    public String getNametagLabel() {
+        String label = nametagLabel;
+        if (label == null) {
+            String text = tag;
+            if (text == null || text.isEmpty()) {
+                text = displayName;
+            }
+            if (text.length() > 9) {
+                text = text.substring(0, 9);
+            }
+            label = "[" + text + "]";
+            nametagLabel = label;
+        }
+        return label;
+    }
+
+    /**
+     * Colored nametag prefix: §c[TAG]§r (with trailing space), always within 16 chars
+     */
+    public String getNametagPrefix() {
+        String prefix = nametagPrefix;
+        if (prefix == null) {
+            prefix = color + getNametagLabel() + ChatColor.RESET + " ";
+            nametagPrefix = prefix;
+        }
+        return prefix;
+    }
 
     public String getColoredName() {
         return color + displayName + ChatColor.RESET;
@@ -120,10 +249,48 @@ public class Team {
     }
 
     public String getColoredTag() {
-        if (tag != null && !tag.isEmpty()) {
-            return color + tag + ChatColor.RESET;
+        String cached = coloredTag;
+        if (cached == null) {
+            if (tag != null && !tag.isEmpty()) {
+                cached = color + tag + ChatColor.RESET;
+            } else {
+                cached = color + "[" + displayName + "]" + ChatColor.RESET;
+            }
+            coloredTag = cached;
         }
-        return color + "[" + displayName + "]" + ChatColor.RESET;
+        return cached;
+    }
+
+    /**
+     * Chat prefix component: colored tag followed by a space.
+     * Parsed from the legacy string once and reused for every message until tag, color or name changes.
+     */
+    public Component getChatPrefix() {
+        Component cached = chatPrefix;
+        if (cached == null) {
+            cached = LegacyComponentSerializer.legacySection().deserialize(getColoredTag() + " ");
+            chatPrefix = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Chat prefix without team colors, used when colored-names is turned off
+     */
+    public Component getPlainChatPrefix() {
+        Component cached = plainChatPrefix;
+        if (cached == null) {
+            cached = Component.text(ChatColor.stripColor(getColoredTag()) + " ");
+            plainChatPrefix = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Chat prefix honouring the colored-names setting
+     */
+    public Component getChatPrefix(boolean colored) {
+        return colored ? getChatPrefix() : getPlainChatPrefix();
     }
 
     public UUID getLeader() { return leader; }
@@ -132,30 +299,57 @@ public class Team {
         if (!members.contains(leader)) {
             members.add(leader);
         }
+        version++;
     }
 
     public Set<UUID> getMembers() { return new HashSet<>(members); }
     public Set<UUID> getModerators() { return new HashSet<>(moderators); }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) {
+        this.description = description;
+        version++;
+    }
 
     public boolean isFriendlyFire() { return friendlyFire; }
-    public void setFriendlyFire(boolean friendlyFire) { this.friendlyFire = friendlyFire; }
+    public void setFriendlyFire(boolean friendlyFire) {
+        this.friendlyFire = friendlyFire;
+        version++;
+    }
 
     public boolean isAllowAlliances() { return allowAlliances; }
-    public void setAllowAlliances(boolean allowAlliances) { this.allowAlliances = allowAlliances; }
+    public void setAllowAlliances(boolean allowAlliances) {
+        this.allowAlliances = allowAlliances;
+        version++;
+    }
 
     public long getCreatedAt() { return createdAt; }
 
     public int getMaxMembers() { return maxMembers; }
-    public void setMaxMembers(int maxMembers) { this.maxMembers = maxMembers; }
+    public void setMaxMembers(int maxMembers) {
+        this.maxMembers = maxMembers;
+        version++;
+    }
 
     public int getTotalKills() { return totalKills; }
-    public void addKill() { this.totalKills++; }
+    public void addKill() {
+        this.totalKills++;
+        version++;
+    }
+    public void setTotalKills(int totalKills) {
+        this.totalKills = totalKills;
+        version++;
+    }
 
     public int getTotalDeaths() { return totalDeaths; }
-    public void addDeath() { this.totalDeaths++; }
+    public void addDeath() {
+        this.totalDeaths++;
+        version++;
+    }
+    public void setTotalDeaths(int totalDeaths) {
+        this.totalDeaths = totalDeaths;
+        version++;
+    }
 
     // Member Management
     public boolean addMember(UUID player) {
@@ -163,7 +357,7 @@ public class Team {
             return false;
         }
         invitations.remove(player);
-        return members.add(player);
+        return changed(members.add(player));
     }
 
     public boolean removeMember(UUID player) {
@@ -171,7 +365,7 @@ public class Team {
             return false;
         }
         moderators.remove(player);
-        return members.remove(player);
+        return changed(members.remove(player));
     }
 
     public boolean isMember(UUID player) {
@@ -190,24 +384,29 @@ public class Team {
         if (!isMember(player) || isLeader(player)) {
             return false;
         }
-        return moderators.add(player);
+        return changed(moderators.add(player));
     }
 
     public boolean removeModerator(UUID player) {
-        return moderators.remove(player);
+        return changed(moderators.remove(player));
     }
 
     // Invitation Management
     public void addInvitation(UUID player) {
         invitations.put(player, System.currentTimeMillis());
+        version++;
     }
 
     public boolean hasInvitation(UUID player) {
+        return hasInvitation(player, 300000L);
+    }
+
+    public boolean hasInvitation(UUID player, long expiryMillis) {
         if (!invitations.containsKey(player)) {
             return false;
         }
         long inviteTime = invitations.get(player);
-        if (System.currentTimeMillis() - inviteTime > 300000) {
+        if (System.currentTimeMillis() - inviteTime > expiryMillis) {
             invitations.remove(player);
             return false;
         }
@@ -249,6 +448,7 @@ public class Team {
         data.put("allowAlliances", allowAlliances);
         data.put("createdAt", createdAt);
         data.put("maxMembers", maxMembers);
+        data.put("scoreboardId", scoreboardId);
         data.put("totalKills", totalKills);
         data.put("totalDeaths", totalDeaths);
 
@@ -282,6 +482,10 @@ public class Team {
         team.setFriendlyFire((Boolean) data.getOrDefault("friendlyFire", false));
         team.setAllowAlliances((Boolean) data.getOrDefault("allowAlliances", true));
         team.setMaxMembers((Integer) data.getOrDefault("maxMembers", 10));
+        team.setScoreboardId((Integer) data.getOrDefault("scoreboardId", 0));
+        if (data.get("createdAt") instanceof Number) {
+            team.createdAt = ((Number) data.get("createdAt")).longValue();
+        }
 
         if (data.containsKey("totalKills")) {
             team.totalKills = (Integer) data.get("totalKills");
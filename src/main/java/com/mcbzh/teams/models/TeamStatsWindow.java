@@ -0,0 +1,118 @@
+package com.mcbzh.teams.models;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Rolling kill/death counts for one team: a ring of 168 hourly buckets (one week) with running
+ * day, week and season sums. Sums are adjusted as buckets expire, so reading a window is O(1)
+ * and memory per team is fixed.
+ */
+public class TeamStatsWindow {
+    public static final int KILLS = 0;
+    public static final int DEATHS = 1;
+
+    private static final int STATS = 2;
+    private static final int HOURS_PER_DAY = 24;
+    private static final int HOURS_PER_WEEK = 168;
+
+    private final int[][] buckets = new int[STATS][HOURS_PER_WEEK];
+    private final int[] daySums = new int[STATS];
+    private final int[] weekSums = new int[STATS];
+    private final int[] seasonSums = new int[STATS];
+    private long currentHour;
+
+    public void add(int stat, long hour) {
+        advance(hour);
+        buckets[stat][index(hour)]++;
+        daySums[stat]++;
+        weekSums[stat]++;
+        seasonSums[stat]++;
+    }
+
+    /**
+     * Move the window forward to the given hour, expiring buckets that fall out of it
+     */
+    public void advance(long hour) {
+        if (hour <= currentHour) {
+            return;
+        }
+
+        if (currentHour == 0 || hour - currentHour >= HOURS_PER_WEEK) {
+            // New or long-idle team: everything has expired
+            for (int stat = 0; stat < STATS; stat++) {
+                Arrays.fill(buckets[stat], 0);
+                daySums[stat] = 0;
+                weekSums[stat] = 0;
+            }
+            currentHour = hour;
+            return;
+        }
+
+        for (long h = currentHour + 1; h <= hour; h++) {
+            for (int stat = 0; stat < STATS; stat++) {
+                daySums[stat] -= buckets[stat][index(h - HOURS_PER_DAY)];
+                weekSums[stat] -= buckets[stat][index(h)];
+                buckets[stat][index(h)] = 0;
+            }
+        }
+        currentHour = hour;
+    }
+
+    public int getDay(int stat) {
+        return daySums[stat];
+    }
+
+    public int getWeek(int stat) {
+        return weekSums[stat];
+    }
+
+    public int getSeason(int stat) {
+        return seasonSums[stat];
+    }
+
+    public void resetSeason() {
+        seasonSums[KILLS] = 0;
+        seasonSums[DEATHS] = 0;
+    }
+
+    private static int index(long hour) {
+        return (int) Math.floorMod(hour, (long) HOURS_PER_WEEK);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeLong(currentHour);
+        for (int stat = 0; stat < STATS; stat++) {
+            out.writeInt(seasonSums[stat]);
+            for (int value : buckets[stat]) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    public static TeamStatsWindow read(DataInputStream in) throws IOException {
+        TeamStatsWindow window = new TeamStatsWindow();
+        window.currentHour = in.readLong();
+
+        for (int stat = 0; stat < STATS; stat++) {
+            window.seasonSums[stat] = in.readInt();
+            for (int i = 0; i < HOURS_PER_WEEK; i++) {
+                window.buckets[stat][i] = in.readInt();
+            }
+        }
+
+        // Rebuild the running sums from the buckets
+        for (int stat = 0; stat < STATS; stat++) {
+            for (int offset = 0; offset < HOURS_PER_WEEK; offset++) {
+                int value = window.buckets[stat][index(window.currentHour - offset)];
+                window.weekSums[stat] += value;
+                if (offset < HOURS_PER_DAY) {
+                    window.daySums[stat] += value;
+                }
+            }
+        }
+        return window;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mcbzh.teams.util;
+
+import java.util.Arrays;
+
+/**
+ * Symmetric bit matrix over dense slot indices.
+ * Each row is a run of longs, so a lookup is one array read and a mask - no hashing or boxing.
+ * Not thread-safe; owned by the main thread.
+ */
+public final class SlotMatrix {
+    private int size;
+    private int wordsPerRow;
+    private long[] bits;
+
+    public SlotMatrix(int size) {
+        this.size = size;
+        this.wordsPerRow = wordsFor(size);
+        this.bits = new long[size * wordsPerRow];
+    }
+
+    public boolean get(int a, int b) {
+        if (a < 0 || b < 0 || a >= size || b >= size) {
+            return false;
+        }
+        return (bits[a * wordsPerRow + (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    /**
+     * Set or clear the relation in both directions
+     */
+    public void set(int a, int b, boolean value) {
+        ensureCapacity(Math.max(a, b) + 1);
+        setBit(a, b, value);
+        setBit(b, a, value);
+    }
+
+    /**
+     * Remove every relation of a slot, e.g. before the slot is reused
+     */
+    public void clearSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            return;
+        }
+        Arrays.fill(bits, slot * wordsPerRow, (slot + 1) * wordsPerRow, 0L);
+        for (int row = 0; row < size; row++) {
+            setBit(row, slot, false);
+        }
+    }
+
+    public void ensureCapacity(int required) {
+        if (required <= size) {
+            return;
+        }
+
+        int newSize = Math.max(required, size * 2);
+        int newWords = wordsFor(newSize);
+        long[] newBits = new long[newSize * newWords];
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(bits, row * wordsPerRow, newBits, row * newWords, wordsPerRow);
+        }
+
+        size = newSize;
+        wordsPerRow = newWords;
+        bits = newBits;
+    }
+
+    private void setBit(int row, int column, boolean value) {
+        int index = row * wordsPerRow + (column >>> 6);
+        if (value) {
+            bits[index] |= 1L << column;
+        } else {
+            bits[index] &= ~(1L << column);
+        }
+    }
+
+    private static int wordsFor(int size) {
+        return Math.max(1, (size + 63) >>> 6);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mcbzh.teams.util;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Lock-free token bucket, implemented as a GCRA (generic cell rate algorithm).
+ *
+ * The whole bucket state is one "theoretical arrival time" updated with a CAS, so acquiring a
+ * token never blocks and never allocates. Rate and burst are passed in per call, which lets
+ * callers swap limits (e.g. on config reload) without touching existing buckets.
+ */
+public class TokenBucket {
+    private static final AtomicLongFieldUpdater<TokenBucket> ARRIVAL =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "theoreticalArrival");
+
+    private volatile long theoreticalArrival = Long.MIN_VALUE;
+
+    /**
+     * Try to take one token.
+     *
+     * @param now            current time from System.nanoTime()
+     * @param intervalNanos  time to refill one token (1 / rate)
+     * @param toleranceNanos how far ahead of now the bucket may run ((burst - 1) * interval)
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long arrival = theoreticalArrival;
+            long base = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+
+            if (base - now > toleranceNanos) {
+                return false;
+            }
+
+            if (ARRIVAL.compareAndSet(this, arrival, base + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by tryAcquire with the same interval (e.g. when a second limit
+     * rejected the message it was taken for)
+     */
+    public void refund(long intervalNanos) {
+        ARRIVAL.getAndAdd(this, -intervalNanos);
+    }
+}